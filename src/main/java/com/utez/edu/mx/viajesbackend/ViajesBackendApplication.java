@@ -2,8 +2,10 @@ package com.utez.edu.mx.viajesbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ViajesBackendApplication {
 
     public static void main(String[] args) {
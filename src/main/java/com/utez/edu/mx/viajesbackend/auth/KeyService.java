@@ -3,25 +3,78 @@ package com.utez.edu.mx.viajesbackend.auth;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import java.security.Key;
 
+/**
+ * Provee las llaves HMAC de los JWT.
+ *
+ * <p>Las llaves se derivan una sola vez al arrancar y se indexan por {@code kid}.
+ * Los tokens se firman con la llave primaria ({@code secret.key}); para rotarla
+ * se configura la anterior en {@code secret.key.previous} con su id en
+ * {@code secret.key.previous-id}, de modo que los tokens ya emitidos sigan
+ * siendo válidos hasta expirar. El {@link JwtParser} se construye una vez y es
+ * seguro entre hilos.</p>
+ */
 @Service
 public class KeyService {
 
     @Value("${secret.key}")
     private String JWT_KEY;
 
-    public Key getSigningKey() {
+    @Value("${secret.key.id:primary}")
+    private String JWT_KEY_ID;
+
+    @Value("${secret.key.previous:}")
+    private String JWT_PREVIOUS_KEY;
+
+    @Value("${secret.key.previous-id:previous}")
+    private String JWT_PREVIOUS_KEY_ID;
+
+    private Key primaryKey;
+    private Map<String, Key> keysById;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
         if (JWT_KEY == null || JWT_KEY.isEmpty()) {
             throw new IllegalStateException("JWT primary key not configured");
         }
+        Map<String, Key> keys = new HashMap<>();
+        primaryKey = buildKey(JWT_KEY);
+        keys.put(JWT_KEY_ID, primaryKey);
+        if (JWT_PREVIOUS_KEY != null && !JWT_PREVIOUS_KEY.isEmpty()) {
+            keys.put(JWT_PREVIOUS_KEY_ID, buildKey(JWT_PREVIOUS_KEY));
+        }
+        keysById = Collections.unmodifiableMap(keys);
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    private Key buildKey(String secret) {
         try {
             byte[] decoded;
             try {
-                decoded = Base64.getDecoder().decode(JWT_KEY);
+                decoded = Base64.getDecoder().decode(secret);
             } catch (IllegalArgumentException e) {
-                decoded = JWT_KEY.getBytes();
+                decoded = secret.getBytes();
             }
             if (decoded.length < 32) {
                 byte[] padded = new byte[32];
@@ -34,8 +87,37 @@ public class KeyService {
         }
     }
 
+    /**
+     * Llave correspondiente al {@code kid} del token; los tokens sin {@code kid}
+     * se verifican con la llave primaria.
+     */
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            return primaryKey;
+        }
+        Key key = keysById.get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    public Key getSigningKey() {
+        return primaryKey;
+    }
+
     public Key getKey() {
-        return getSigningKey();
+        return primaryKey;
+    }
+
+    /** Id con el que se firman los tokens nuevos. */
+    public String getKeyId() {
+        return JWT_KEY_ID;
+    }
+
+    /** Parser reutilizable que resuelve la llave por {@code kid}. */
+    public JwtParser getParser() {
+        return parser;
     }
 
 }
@@ -1,5 +1,6 @@
 package com.utez.edu.mx.viajesbackend.auth.modules;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -19,6 +20,7 @@ import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileReposit
 import com.utez.edu.mx.viajesbackend.modules.notification.NotificationService;
 import com.utez.edu.mx.viajesbackend.modules.notification.NotificationType;
 import com.utez.edu.mx.viajesbackend.modules.user.User;
+import com.utez.edu.mx.viajesbackend.modules.user.UserLifecycleEvent;
 import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
 import com.utez.edu.mx.viajesbackend.security.JWTUtil;
 import com.utez.edu.mx.viajesbackend.security.UserDetailsImpl;
@@ -46,6 +48,7 @@ public class AuthService {
     private final com.utez.edu.mx.viajesbackend.modules.role.RoleRepository roleRepository;
     private final DriverProfileRepository driverProfileRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
     private final SecureRandom random = new SecureRandom();
 
     public AuthService(
@@ -58,7 +61,8 @@ public class AuthService {
             JWTUtil jwtUtil,
             com.utez.edu.mx.viajesbackend.modules.role.RoleRepository roleRepository,
             DriverProfileRepository driverProfileRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            ApplicationEventPublisher eventPublisher) {
         this.authManager = authManager;
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
@@ -69,6 +73,7 @@ public class AuthService {
         this.roleRepository = roleRepository;
         this.driverProfileRepository = driverProfileRepository;
         this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -107,6 +112,8 @@ public class AuthService {
         user.setRole(role);
 
         userRepository.save(user);
+        // Alimenta los contadores del panel de administración al confirmar la transacción
+        eventPublisher.publishEvent(UserLifecycleEvent.created(user));
 
         Map<String, Object> response = new HashMap<>();
         response.put("userId", user.getId());
@@ -1,13 +1,9 @@
 package com.utez.edu.mx.viajesbackend.modules.admin;
 
 import com.utez.edu.mx.viajesbackend.modules.admin.dto.DashboardStatsDTO;
-import com.utez.edu.mx.viajesbackend.modules.trip.TripRepository;
-import com.utez.edu.mx.viajesbackend.modules.trip.TripStatus;
-import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
 import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -18,56 +14,37 @@ import java.util.Map;
 @Service
 public class AdminService {
 
-    private final UserRepository userRepository;
-    private final TripRepository tripRepository;
+    private final DashboardStatsRegistry statsRegistry;
     private final CustomResponseEntity customResponseEntity;
 
-    // Role IDs from DataInitializer
-    private static final int ROLE_CLIENT = 2;
-    private static final int ROLE_DRIVER = 3;
-
-    public AdminService(UserRepository userRepository,
-                        TripRepository tripRepository,
+    public AdminService(DashboardStatsRegistry statsRegistry,
                         CustomResponseEntity customResponseEntity) {
-        this.userRepository = userRepository;
-        this.tripRepository = tripRepository;
+        this.statsRegistry = statsRegistry;
         this.customResponseEntity = customResponseEntity;
     }
 
-    // Get dashboard statistics with real data
-    @Transactional(readOnly = true)
+    // Get dashboard statistics from the in-memory counters (no DB queries)
     public ResponseEntity<?> getDashboardStats() {
+        DashboardStats snapshot = statsRegistry.snapshot();
         DashboardStatsDTO stats = new DashboardStatsDTO();
 
-        // User statistics
-        long totalUsers = userRepository.count();
-        long totalClients = userRepository.countByRoleId(ROLE_CLIENT);
-        long totalDrivers = userRepository.countByRoleId(ROLE_DRIVER);
-        long activeDrivers = userRepository.countByRoleIdAndStatus(ROLE_DRIVER, true);
-        long pendingDrivers = userRepository.countByRoleIdAndStatus(ROLE_DRIVER, false);
+        long totalClients = snapshot.totalClients();
+        long totalDrivers = snapshot.totalDrivers();
+        long completedTrips = snapshot.completedTrips();
+        long activeTrips = snapshot.activeTrips();
 
-        stats.setTotalUsers(totalUsers);
+        stats.setTotalUsers(snapshot.totalUsers());
         stats.setTotalClients(totalClients);
         stats.setTotalDrivers(totalDrivers);
-        stats.setActiveDrivers(activeDrivers);
-        stats.setPendingDrivers(pendingDrivers);
-
-        // Trip statistics
-        long totalTrips = tripRepository.count();
-        long completedTrips = tripRepository.countByStatus(TripStatus.COMPLETED);
-        long activeTrips = tripRepository.countByStatusIn(
-            List.of(TripStatus.REQUESTED, TripStatus.ACCEPTED, TripStatus.IN_PROGRESS)
-        );
-        long cancelledTrips = tripRepository.countByStatus(TripStatus.CANCELLED);
-
-        stats.setTotalTrips(totalTrips);
+        stats.setActiveDrivers(snapshot.activeDrivers());
+        stats.setPendingDrivers(snapshot.pendingDrivers());
+
+        stats.setTotalTrips(snapshot.totalTrips());
         stats.setCompletedTrips(completedTrips);
         stats.setActiveTrips(activeTrips);
-        stats.setCancelledTrips(cancelledTrips);
-
-        // Total income from completed trips
-        Double totalIncome = tripRepository.sumFareByStatus(TripStatus.COMPLETED);
-        stats.setTotalIncome(totalIncome != null ? totalIncome : 0.0);
+        stats.setCancelledTrips(snapshot.cancelledTrips());
+        stats.setTotalIncome(snapshot.totalIncome());
+        stats.setVersion(snapshot.version());
 
         // Chart data for pie chart
         List<Map<String, Object>> chartData = new ArrayList<>();
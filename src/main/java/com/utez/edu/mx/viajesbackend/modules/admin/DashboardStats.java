@@ -0,0 +1,96 @@
+package com.utez.edu.mx.viajesbackend.modules.admin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Instantánea inmutable de los contadores del panel de administración.
+ *
+ * <p>{@code version} crece con cada cambio aplicado, de modo que un cliente que
+ * recibe deltas por STOMP puede detectar si se perdió alguno y volver a pedir
+ * la instantánea completa por REST.</p>
+ */
+public record DashboardStats(long version,
+                             long totalUsers,
+                             long totalClients,
+                             long totalDrivers,
+                             long activeDrivers,
+                             long pendingDrivers,
+                             long totalTrips,
+                             long completedTrips,
+                             long activeTrips,
+                             long cancelledTrips,
+                             double totalIncome) {
+
+    public static final DashboardStats EMPTY = new DashboardStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.0);
+
+    /**
+     * Aplica un cambio y devuelve la nueva instantánea con la versión siguiente.
+     */
+    public DashboardStats plus(DashboardStats delta) {
+        return new DashboardStats(version + 1,
+                totalUsers + delta.totalUsers,
+                totalClients + delta.totalClients,
+                totalDrivers + delta.totalDrivers,
+                activeDrivers + delta.activeDrivers,
+                pendingDrivers + delta.pendingDrivers,
+                totalTrips + delta.totalTrips,
+                completedTrips + delta.completedTrips,
+                activeTrips + delta.activeTrips,
+                cancelledTrips + delta.cancelledTrips,
+                totalIncome + delta.totalIncome);
+    }
+
+    /**
+     * Diferencia campo a campo respecto a {@code other}, como delta con versión 0.
+     */
+    public DashboardStats minus(DashboardStats other) {
+        return new DashboardStats(0,
+                totalUsers - other.totalUsers,
+                totalClients - other.totalClients,
+                totalDrivers - other.totalDrivers,
+                activeDrivers - other.activeDrivers,
+                pendingDrivers - other.pendingDrivers,
+                totalTrips - other.totalTrips,
+                completedTrips - other.completedTrips,
+                activeTrips - other.activeTrips,
+                cancelledTrips - other.cancelledTrips,
+                totalIncome - other.totalIncome);
+    }
+
+    /** Devuelve una copia con la versión indicada. */
+    public DashboardStats withVersion(long newVersion) {
+        return new DashboardStats(newVersion, totalUsers, totalClients, totalDrivers, activeDrivers,
+                pendingDrivers, totalTrips, completedTrips, activeTrips, cancelledTrips, totalIncome);
+    }
+
+    /** Indica si todos los contadores valen cero (ignora la versión). */
+    public boolean isZero() {
+        return diff(EMPTY).isEmpty();
+    }
+
+    /**
+     * Campos que cambiaron respecto a {@code previous}, con su diferencia.
+     */
+    public Map<String, Object> diff(DashboardStats previous) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfChanged(changes, "totalUsers", totalUsers - previous.totalUsers);
+        putIfChanged(changes, "totalClients", totalClients - previous.totalClients);
+        putIfChanged(changes, "totalDrivers", totalDrivers - previous.totalDrivers);
+        putIfChanged(changes, "activeDrivers", activeDrivers - previous.activeDrivers);
+        putIfChanged(changes, "pendingDrivers", pendingDrivers - previous.pendingDrivers);
+        putIfChanged(changes, "totalTrips", totalTrips - previous.totalTrips);
+        putIfChanged(changes, "completedTrips", completedTrips - previous.completedTrips);
+        putIfChanged(changes, "activeTrips", activeTrips - previous.activeTrips);
+        putIfChanged(changes, "cancelledTrips", cancelledTrips - previous.cancelledTrips);
+        double income = totalIncome - previous.totalIncome;
+        if (Math.abs(income) >= 0.005) {
+            changes.put("totalIncome", Math.round(income * 100.0) / 100.0);
+        }
+        return changes;
+    }
+
+    private static void putIfChanged(Map<String, Object> changes, String field, long delta) {
+        if (delta != 0) changes.put(field, delta);
+    }
+}
@@ -0,0 +1,180 @@
+package com.utez.edu.mx.viajesbackend.modules.admin;
+
+import com.utez.edu.mx.viajesbackend.modules.earnings.EarningsService;
+import com.utez.edu.mx.viajesbackend.modules.trip.Trip;
+import com.utez.edu.mx.viajesbackend.modules.trip.TripEvent;
+import com.utez.edu.mx.viajesbackend.modules.trip.TripRepository;
+import com.utez.edu.mx.viajesbackend.modules.trip.TripStatus;
+import com.utez.edu.mx.viajesbackend.modules.user.UserLifecycleEvent;
+import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
+import com.utez.edu.mx.viajesbackend.websocket.AdminStatsWebSocketController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contadores en memoria del panel de administración.
+ *
+ * <p>Se alimenta de los {@link TripEvent} y {@link UserLifecycleEvent} una vez
+ * confirmada su transacción, así que leer el panel no consulta la base de
+ * datos. Cada cambio reemplaza atómicamente una instantánea inmutable
+ * ({@link DashboardStats}) y se difunde como delta en
+ * {@link AdminStatsWebSocketController#STATS_TOPIC}.</p>
+ *
+ * <p>Los contadores son por nodo y no ven cambios hechos fuera de los servicios
+ * (otro nodo, SQL manual), por lo que se reconcilian contra la base de datos
+ * cada {@code admin.stats.reconcile-ms} y al arrancar. Los eventos que llegan
+ * mientras se ejecutan los conteos no se pierden: se suman sobre el resultado
+ * contado antes de publicarlo.</p>
+ */
+@Component
+public class DashboardStatsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsRegistry.class);
+
+    // Role IDs from DataInitializer
+    static final int ROLE_CLIENT = 2;
+    static final int ROLE_DRIVER = 3;
+
+    static final Set<TripStatus> ACTIVE_STATUSES =
+            EnumSet.of(TripStatus.REQUESTED, TripStatus.ACCEPTED, TripStatus.IN_PROGRESS);
+
+    private final UserRepository userRepository;
+    private final TripRepository tripRepository;
+    private final EarningsService earningsService;
+    private final AdminStatsWebSocketController adminStatsWebSocketController;
+
+    private final AtomicReference<DashboardStats> current = new AtomicReference<>(DashboardStats.EMPTY);
+
+    public DashboardStatsRegistry(UserRepository userRepository,
+                                  TripRepository tripRepository,
+                                  EarningsService earningsService,
+                                  AdminStatsWebSocketController adminStatsWebSocketController) {
+        this.userRepository = userRepository;
+        this.tripRepository = tripRepository;
+        this.earningsService = earningsService;
+        this.adminStatsWebSocketController = adminStatsWebSocketController;
+    }
+
+    /** Instantánea actual; consistente entre todos sus campos. */
+    public DashboardStats snapshot() {
+        return current.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTripEvent(TripEvent event) {
+        Trip trip = event.trip();
+        TripStatus prev = event.prevStatus();
+        TripStatus next = trip.getStatus();
+        if (prev == next) return;
+
+        long completed = 0, active = 0, cancelled = 0;
+        double income = 0;
+        if (prev == null) {
+            // Alta del viaje
+        } else if (ACTIVE_STATUSES.contains(prev)) {
+            active--;
+        } else if (prev == TripStatus.COMPLETED) {
+            completed--;
+        } else if (prev == TripStatus.CANCELLED) {
+            cancelled--;
+        }
+        if (ACTIVE_STATUSES.contains(next)) {
+            active++;
+        } else if (next == TripStatus.COMPLETED) {
+            completed++;
+            income = trip.getFare() != null ? trip.getFare() : 0.0;
+        } else if (next == TripStatus.CANCELLED) {
+            cancelled++;
+        }
+        apply(new DashboardStats(0, 0, 0, 0, 0, 0,
+                prev == null ? 1 : 0, completed, active, cancelled, income));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserLifecycleEvent event) {
+        long users = 0, clients = 0, drivers = 0, activeDrivers = 0, pendingDrivers = 0;
+        int sign = 0;
+        if (event.prevStatus() == null) sign = 1;
+        else if (event.status() == null) sign = -1;
+
+        if (sign != 0) {
+            users = sign;
+            if (event.roleId() == ROLE_CLIENT) clients = sign;
+            if (event.roleId() == ROLE_DRIVER) {
+                drivers = sign;
+                boolean enabled = sign > 0 ? event.status() : event.prevStatus();
+                if (enabled) activeDrivers = sign;
+                else pendingDrivers = sign;
+            }
+        } else if (event.roleId() == ROLE_DRIVER && !event.prevStatus().equals(event.status())) {
+            activeDrivers = event.status() ? 1 : -1;
+            pendingDrivers = -activeDrivers;
+        }
+        apply(new DashboardStats(0, users, clients, drivers, activeDrivers, pendingDrivers, 0, 0, 0, 0, 0.0));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        reconcile();
+    }
+
+    /**
+     * Recalcula los contadores desde la base de datos y corrige cualquier desviación.
+     */
+    @Scheduled(initialDelayString = "${admin.stats.reconcile-ms:300000}",
+            fixedDelayString = "${admin.stats.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            DashboardStats before = current.get();
+            DashboardStats counted = new DashboardStats(0,
+                    userRepository.count(),
+                    userRepository.countByRoleId(ROLE_CLIENT),
+                    userRepository.countByRoleId(ROLE_DRIVER),
+                    userRepository.countByRoleIdAndStatus(ROLE_DRIVER, true),
+                    userRepository.countByRoleIdAndStatus(ROLE_DRIVER, false),
+                    tripRepository.count(),
+                    tripRepository.countByStatus(TripStatus.COMPLETED),
+                    tripRepository.countByStatusIn(ACTIVE_STATUSES),
+                    tripRepository.countByStatus(TripStatus.CANCELLED),
+                    earningsService.getPlatformIncome());
+            DashboardStats latest;
+            DashboardStats next;
+            do {
+                latest = current.get();
+                // Conserva los deltas aplicados por eventos mientras se contaba
+                next = counted.plus(latest.minus(before)).withVersion(latest.version() + 1);
+                if (next.diff(latest).isEmpty()) return;
+            } while (!current.compareAndSet(latest, next));
+            logger.info("Dashboard stats reconciled: {}", next.diff(latest));
+            push(next, next.diff(latest));
+        } catch (Exception e) {
+            logger.error("Error reconciling dashboard stats: {}", e.getMessage());
+        }
+    }
+
+    private void apply(DashboardStats delta) {
+        if (delta.isZero()) return;
+        DashboardStats prev;
+        DashboardStats next;
+        do {
+            prev = current.get();
+            next = prev.plus(delta);
+        } while (!current.compareAndSet(prev, next));
+        push(next, next.diff(prev));
+    }
+
+    private void push(DashboardStats stats, Map<String, Object> changes) {
+        adminStatsWebSocketController.sendStatsDelta(stats.version(), changes);
+    }
+}
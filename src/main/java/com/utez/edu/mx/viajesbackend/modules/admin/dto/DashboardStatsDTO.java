@@ -16,6 +16,7 @@ public class DashboardStatsDTO {
     private long activeTrips;
     private long cancelledTrips;
     private double totalIncome;
+    private long version;
     private List<Map<String, Object>> chartData;
 
     public DashboardStatsDTO() {}
@@ -108,5 +109,12 @@ public class DashboardStatsDTO {
     public void setChartData(List<Map<String, Object>> chartData) {
         this.chartData = chartData;
     }
-}
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,68 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Migración única que mueve el contenido de {@code driver_document.file_data}
+ * (LONGBLOB) al {@link DocumentStore}.
+ *
+ * <p>Se activa con {@code documents.migration.enabled=true}. Procesa los
+ * documentos uno por uno leyendo el blob como flujo, guarda el hash en
+ * {@code storage_key} y deja {@code file_data} en {@code NULL}. Es idempotente:
+ * si se interrumpe, la siguiente ejecución continúa con los que falten.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "documents.migration.enabled", havingValue = "true")
+public class DocumentBlobMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBlobMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentStore documentStore;
+
+    public DocumentBlobMigration(JdbcTemplate jdbcTemplate, DocumentStore documentStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentStore = documentStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM driver_document WHERE file_data IS NOT NULL", Long.class);
+        logger.info("Migrating {} driver document blobs to the document store", ids.size());
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                String key = jdbcTemplate.query(
+                        "SELECT file_data FROM driver_document WHERE id = ?",
+                        rs -> {
+                            if (!rs.next()) return null;
+                            try (InputStream in = rs.getBinaryStream(1)) {
+                                return in != null ? documentStore.store(in) : null;
+                            } catch (IOException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        },
+                        id);
+                if (key == null) continue;
+                jdbcTemplate.update(
+                        "UPDATE driver_document SET storage_key = ?, file_data = NULL WHERE id = ?", key, id);
+                migrated++;
+            } catch (Exception e) {
+                logger.error("Error migrating driver document {}: {}", id, e.getMessage());
+            }
+        }
+        logger.info("Migrated {} of {} driver document blobs", migrated, ids.size());
+    }
+}
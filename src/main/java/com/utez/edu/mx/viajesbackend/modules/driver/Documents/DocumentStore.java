@@ -0,0 +1,32 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Almacenamiento del contenido de los documentos de los choferes.
+ *
+ * <p>El contenido se direcciona por su hash SHA-256, que se guarda en
+ * {@link DriverDocument#getStorageKey()}; la base de datos sólo conserva los
+ * metadatos. Dos archivos idénticos comparten el mismo contenido almacenado.</p>
+ */
+public interface DocumentStore {
+
+    /**
+     * Guarda el contenido leyéndolo del flujo sin cargarlo completo en memoria.
+     *
+     * @param content flujo con el contenido; no se cierra
+     * @return llave de almacenamiento (SHA-256 en hexadecimal)
+     */
+    String store(InputStream content) throws IOException;
+
+    /**
+     * Recurso para leer el contenido almacenado, o {@code null} si no existe.
+     */
+    Resource load(String storageKey);
+
+    /** Indica si la llave corresponde a un contenido de este almacén. */
+    boolean exists(String storageKey);
+}
@@ -27,9 +27,7 @@ public class DriverDocument {
     @Column(name = "original_name")
     private String originalName;
 
-    @Lob
-    @Column(name = "file_data", columnDefinition = "LONGBLOB")
-    private byte[] fileData;
+    // El contenido vive en el DocumentStore; el blob heredado se lee con DriverDocumentBlob
 
     // Getters y Setters
     public Long getId() { return id; }
@@ -49,7 +47,4 @@ public class DriverDocument {
 
     public String getOriginalName() { return originalName; }
     public void setOriginalName(String originalName) { this.originalName = originalName; }
-
-    public byte[] getFileData() { return fileData; }
-    public void setFileData(byte[] fileData) { this.fileData = fileData; }
 }
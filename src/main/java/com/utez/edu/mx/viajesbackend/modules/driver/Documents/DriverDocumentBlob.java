@@ -0,0 +1,27 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Contenido heredado ({@code file_data}) de un {@link DriverDocument}, mapeado
+ * aparte sobre la misma tabla para que cargar los metadatos nunca traiga el blob.
+ *
+ * <p>Sólo se lee al descargar documentos que aún no se migraron al
+ * {@link DocumentStore}; los documentos nuevos no usan esta columna.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "driver_document")
+public class DriverDocumentBlob {
+    @Id
+    private Long id;
+
+    @Lob
+    @Column(name = "file_data", columnDefinition = "LONGBLOB")
+    private byte[] fileData;
+
+    public Long getId() { return id; }
+
+    public byte[] getFileData() { return fileData; }
+}
@@ -0,0 +1,6 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DriverDocumentBlobRepository extends JpaRepository<DriverDocumentBlob, Long> {
+}
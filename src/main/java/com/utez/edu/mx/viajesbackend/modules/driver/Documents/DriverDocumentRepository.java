@@ -1,10 +1,24 @@
 package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface DriverDocumentRepository extends JpaRepository<DriverDocument, Long> {
     List<DriverDocument> findByDriverId(Long driverId);
-}
 
+    /** Metadatos de los documentos de un chofer, sin contenido. */
+    @Query("SELECT new com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentSummary(" +
+            "d.id, d.type, d.storageKey, d.mimeType, d.originalName) " +
+            "FROM DriverDocument d WHERE d.driver.id = :driverId ORDER BY d.id")
+    List<DriverDocumentSummary> findSummariesByDriverId(@Param("driverId") Long driverId);
+
+    /** Metadatos de un documento, sin contenido. */
+    @Query("SELECT new com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentSummary(" +
+            "d.id, d.type, d.storageKey, d.mimeType, d.originalName) " +
+            "FROM DriverDocument d WHERE d.id = :id")
+    Optional<DriverDocumentSummary> findSummaryById(@Param("id") Long id);
+}
@@ -0,0 +1,28 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+/**
+ * Metadatos de un documento, obtenidos por proyección sin cargar el perfil del
+ * chofer ni el contenido.
+ */
+public class DriverDocumentSummary {
+
+    private final Long id;
+    private final DriverDocType type;
+    private final String storageKey;
+    private final String mimeType;
+    private final String originalName;
+
+    public DriverDocumentSummary(Long id, DriverDocType type, String storageKey, String mimeType, String originalName) {
+        this.id = id;
+        this.type = type;
+        this.storageKey = storageKey;
+        this.mimeType = mimeType;
+        this.originalName = originalName;
+    }
+
+    public Long getId() { return id; }
+    public DriverDocType getType() { return type; }
+    public String getStorageKey() { return storageKey; }
+    public String getMimeType() { return mimeType; }
+    public String getOriginalName() { return originalName; }
+}
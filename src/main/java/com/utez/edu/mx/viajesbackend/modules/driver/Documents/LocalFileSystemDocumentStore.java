@@ -0,0 +1,83 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Documents;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * {@link DocumentStore} sobre el sistema de archivos local.
+ *
+ * <p>Cada subida se copia en bloques a un archivo temporal mientras se calcula su
+ * SHA-256 y después se mueve a {@code <dir>/<aa>/<bb>/<hash>}. Si ese contenido
+ * ya existía, el temporal se descarta.</p>
+ */
+@Component
+public class LocalFileSystemDocumentStore implements DocumentStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalFileSystemDocumentStore(@Value("${documents.storage.local-dir:./data/documents}") String dir) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public String store(InputStream content) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                content.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+            if (!Files.exists(target)) {
+                // Si ya existe es el mismo contenido y el temporal se descarta
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource load(String storageKey) {
+        if (!exists(storageKey)) return null;
+        return new FileSystemResource(pathFor(storageKey));
+    }
+
+    @Override
+    public boolean exists(String storageKey) {
+        return storageKey != null && KEY_PATTERN.matcher(storageKey).matches()
+                && Files.isRegularFile(pathFor(storageKey));
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
@@ -2,6 +2,7 @@ package com.utez.edu.mx.viajesbackend.modules.driver;
 
 import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocument;
 import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentRepository;
+import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentSummary;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfile;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
 import com.utez.edu.mx.viajesbackend.modules.driver.Vehicle.Vehicle;
@@ -9,8 +10,11 @@ import com.utez.edu.mx.viajesbackend.modules.driver.Vehicle.VehicleRepository;
 import com.utez.edu.mx.viajesbackend.modules.user.User;
 import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
@@ -141,7 +145,7 @@ public class DriverController {
         
         // Fetch using repositories to ensure data is retrieved
         List<Vehicle> vehicles = vehicleRepository.findByDriverId(dp.getId());
-        List<DriverDocument> documents = driverDocumentRepository.findByDriverId(dp.getId());
+        List<DriverDocumentSummary> documents = driverDocumentRepository.findSummariesByDriverId(dp.getId());
 
         Map<String, Object> resp = new LinkedHashMap<>();
         resp.put("user", toUserMap(user));
@@ -205,9 +209,9 @@ public class DriverController {
         return out;
     }
 
-    private List<Map<String, Object>> toDocumentsList(List<DriverDocument> list) {
+    private List<Map<String, Object>> toDocumentsList(List<DriverDocumentSummary> list) {
         List<Map<String, Object>> out = new ArrayList<>();
-        for (DriverDocument d : list) {
+        for (DriverDocumentSummary d : list) {
             Map<String, Object> m = new LinkedHashMap<>();
             m.put("id", d.getId());
             m.put("type", d.getType());
@@ -257,14 +261,26 @@ public class DriverController {
        DOWNLOAD DOCUMENT
        ============================ */
     @GetMapping("/documents/{id}/download")
-    public ResponseEntity<?> downloadDocument(@PathVariable Long id) {
-        DriverDocument doc = driverProfileService.getDocumentById(id);
+    public ResponseEntity<?> downloadDocument(@PathVariable Long id, WebRequest request) {
+        DriverDocumentSummary doc = driverProfileService.getDocumentSummary(id);
         if (doc == null) return ResponseEntity.notFound().build();
-        
+
+        // storage_key es el hash del contenido: sirve como ETag fuerte
+        String etag = "\"" + doc.getStorageKey() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified ya preparado por Spring
+        }
+
+        // Se sirve como Resource: Spring lo copia en bloques y atiende cabeceras Range
+        Resource body = driverProfileService.getDocumentContent(doc);
+        if (body == null) return ResponseEntity.notFound().build();
+
         return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + doc.getOriginalName() + "\"")
                 .contentType(org.springframework.http.MediaType.parseMediaType(doc.getMimeType()))
-                .body(doc.getFileData());
+                .body(body);
     }
 }
 
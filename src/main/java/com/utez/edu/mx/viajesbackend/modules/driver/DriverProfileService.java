@@ -1,21 +1,32 @@
 package com.utez.edu.mx.viajesbackend.modules.driver;
 
+import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DocumentStore;
 import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocument;
+import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentBlob;
+import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentBlobRepository;
+import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentSummary;
 import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocumentRepository;
 import com.utez.edu.mx.viajesbackend.modules.driver.Documents.DriverDocType;
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverLocationStore;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverAvailability;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfile;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
 import com.utez.edu.mx.viajesbackend.modules.driver.Vehicle.Vehicle;
 import com.utez.edu.mx.viajesbackend.modules.driver.Vehicle.VehicleRepository;
 import com.utez.edu.mx.viajesbackend.modules.user.User;
+import com.utez.edu.mx.viajesbackend.modules.user.UserLifecycleEvent;
 import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
+import com.utez.edu.mx.viajesbackend.security.AuthPrincipalCache;
 import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,17 +41,32 @@ public class DriverProfileService {
     private final DriverDocumentRepository documentRepository;
     private final UserRepository userRepository;
     private final CustomResponseEntity customResponseEntity; // ajusta import/paquete
+    private final DriverLocationStore driverLocationStore;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final DocumentStore documentStore;
+    private final DriverDocumentBlobRepository documentBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DriverProfileService(DriverProfileRepository driverProfileRepository,
                                 VehicleRepository vehicleRepository,
                                 DriverDocumentRepository documentRepository,
                                 UserRepository userRepository,
-                                CustomResponseEntity customResponseEntity) {
+                                CustomResponseEntity customResponseEntity,
+                                DriverLocationStore driverLocationStore,
+                                AuthPrincipalCache authPrincipalCache,
+                                DocumentStore documentStore,
+                                DriverDocumentBlobRepository documentBlobRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.driverProfileRepository = driverProfileRepository;
         this.vehicleRepository = vehicleRepository;
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
         this.customResponseEntity = customResponseEntity;
+        this.driverLocationStore = driverLocationStore;
+        this.authPrincipalCache = authPrincipalCache;
+        this.documentStore = documentStore;
+        this.documentBlobRepository = documentBlobRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /** Paso 2: crear perfil chofer para un usuario existente (User.status se maneja en UserService). */
@@ -147,14 +173,16 @@ public class DriverProfileService {
             return customResponseEntity.get400Response("Tipo de documento inválido");
         }
 
-        try {
+        try (InputStream in = file.getInputStream()) {
+            // El contenido va del flujo multipart al almacén sin pasar por memoria
+            String storageKey = documentStore.store(in);
+
             DriverDocument document = new DriverDocument();
             document.setDriver(dp);
             document.setType(docType);
             document.setMimeType(file.getContentType());
             document.setOriginalName(file.getOriginalFilename());
-            document.setStorageKey("BLOB_" + System.currentTimeMillis());
-            document.setFileData(file.getBytes()); // Store as BLOB
+            document.setStorageKey(storageKey);
 
             documentRepository.save(document);
             return customResponseEntity.getOkResponse("Documento subido exitosamente", "ok", 200, null);
@@ -175,8 +203,11 @@ public class DriverProfileService {
             return customResponseEntity.get400Response("El chofer no tiene perfil");
         }
 
+        boolean prevStatus = user.isStatus();
         user.setStatus(true);
         userRepository.save(user);
+        authPrincipalCache.evictUserAfterCommit(user.getUsername());
+        if (!prevStatus) eventPublisher.publishEvent(UserLifecycleEvent.statusChanged(user, prevStatus));
         return customResponseEntity.getOkResponse("Chofer aprobado", "ok", 200, null);
     }
 
@@ -189,8 +220,11 @@ public class DriverProfileService {
             return customResponseEntity.get400Response("El usuario no tiene rol de chofer");
         }
 
+        boolean prevStatus = user.isStatus();
         user.setStatus(false);
         userRepository.save(user);
+        authPrincipalCache.evictUserAfterCommit(user.getUsername());
+        if (prevStatus) eventPublisher.publishEvent(UserLifecycleEvent.statusChanged(user, prevStatus));
         return customResponseEntity.getOkResponse("Chofer suspendido", "ok", 200, null);
     }
 
@@ -227,6 +261,7 @@ public class DriverProfileService {
 
         dp.setAvailability(DriverAvailability.FUERA_DE_SERVICIO);
         driverProfileRepository.save(dp);
+        driverLocationStore.remove(dp.getId());
         return customResponseEntity.getOkResponse(
                 "El chofer ahora está FUERA DE SERVICIO",
                 "ok", 200, null
@@ -299,4 +334,22 @@ public class DriverProfileService {
     public DriverDocument getDocumentById(Long id) {
         return documentRepository.findById(id).orElse(null);
     }
+
+    /** Metadatos del documento sin su contenido. */
+    public DriverDocumentSummary getDocumentSummary(Long id) {
+        return documentRepository.findSummaryById(id).orElse(null);
+    }
+
+    /**
+     * Contenido del documento: el archivo del almacén o, si aún no se migró, el
+     * blob heredado. {@code null} si no existe.
+     */
+    public Resource getDocumentContent(DriverDocumentSummary doc) {
+        Resource stored = documentStore.load(doc.getStorageKey());
+        if (stored != null) return stored;
+        return documentBlobRepository.findById(doc.getId())
+                .map(DriverDocumentBlob::getFileData)
+                .map(ByteArrayResource::new)
+                .orElse(null);
+    }
 }
@@ -0,0 +1,191 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Location;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacén en memoria de la última posición de cada chofer.
+ *
+ * <p>Los pings GPS sólo actualizan la entrada del chofer en memoria; ninguno
+ * se escribe directamente en MySQL. Cada {@code drivers.location.sample-interval-ms}
+ * se toma una muestra por chofer que se encola y se escribe en lote en
+ * {@code driver_location_trail} desde una tarea programada.</p>
+ *
+ * <p>El recorrido es de mejor esfuerzo: si la cola está llena el punto se
+ * descarta, y si un lote falla al escribirse se reintenta en las siguientes
+ * vueltas hasta {@value #MAX_FLUSH_ATTEMPTS} veces antes de descartarlo. Los
+ * puntos descartados se cuentan en la métrica {@code drivers.location.trail.dropped}.</p>
+ */
+@Component
+public class DriverLocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationStore.class);
+
+    /** Intentos de escritura de un lote antes de descartarlo. */
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static final String INSERT_TRAIL =
+            "INSERT INTO driver_location_trail (driver_id, latitude, longitude, recorded_at) VALUES (?, ?, ?, ?)";
+
+    private final Map<Long, DriverPosition> positions = new ConcurrentHashMap<>();
+    private final BlockingQueue<TrailPoint> pendingTrail;
+    private final AtomicLong droppedTrailPoints = new AtomicLong();
+    private final JdbcTemplate jdbcTemplate;
+    private final long sampleIntervalMillis;
+    private final int flushBatchSize;
+    private final long staleAfterMillis;
+    private final Counter droppedTrailCounter;
+
+    /** Lote cuya escritura falló; se reintenta antes de tomar puntos nuevos de la cola. */
+    private List<TrailPoint> failedBatch = List.of();
+    private int failedAttempts;
+
+    public DriverLocationStore(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${drivers.location.sample-interval-ms:15000}") long sampleIntervalMillis,
+                               @Value("${drivers.location.trail-queue-capacity:50000}") int queueCapacity,
+                               @Value("${drivers.location.flush-batch-size:500}") int flushBatchSize,
+                               @Value("${drivers.location.stale-after-ms:600000}") long staleAfterMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sampleIntervalMillis = sampleIntervalMillis;
+        this.pendingTrail = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushBatchSize = flushBatchSize;
+        this.staleAfterMillis = staleAfterMillis;
+        this.droppedTrailCounter = Counter.builder("drivers.location.trail.dropped")
+                .description("Sampled driver trail points discarded before reaching the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra un ping de posición de un chofer.
+     */
+    public void update(long driverId, String username, double latitude, double longitude) {
+        long now = System.currentTimeMillis();
+        DriverPosition position = positions.computeIfAbsent(driverId, DriverPosition::new);
+        if (position.update(username, latitude, longitude, now, sampleIntervalMillis)) {
+            if (!pendingTrail.offer(new TrailPoint(driverId, latitude, longitude, now))) {
+                droppedTrailPoints.incrementAndGet();
+                droppedTrailCounter.increment();
+            }
+        }
+    }
+
+    /** Última posición del chofer, o {@code null} si no ha reportado ninguna. */
+    public DriverPosition.Snapshot get(long driverId) {
+        DriverPosition position = positions.get(driverId);
+        return position != null ? position.snapshot() : null;
+    }
+
+    /**
+     * Posiciones reportadas dentro de la ventana indicada.
+     *
+     * @param maxAgeMillis antigüedad máxima del último ping
+     */
+    public List<DriverPosition.Snapshot> findFresh(long maxAgeMillis) {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        List<DriverPosition.Snapshot> out = new ArrayList<>();
+        for (DriverPosition position : positions.values()) {
+            DriverPosition.Snapshot snapshot = position.snapshot();
+            if (snapshot.updatedAtMillis() >= cutoff) {
+                out.add(snapshot);
+            }
+        }
+        return out;
+    }
+
+    /** Elimina a un chofer del almacén (p. ej. al quedar fuera de servicio). */
+    public void remove(long driverId) {
+        positions.remove(driverId);
+    }
+
+    /**
+     * Descarta las posiciones sin actualizar en {@code drivers.location.stale-after-ms}.
+     */
+    @Scheduled(fixedDelayString = "${drivers.location.evict-interval-ms:60000}")
+    public void evictStale() {
+        long cutoff = System.currentTimeMillis() - staleAfterMillis;
+        positions.values().removeIf(p -> p.getUpdatedAtMillis() < cutoff);
+    }
+
+    /**
+     * Escribe en lote el recorrido muestreado pendiente.
+     *
+     * <p>Un lote que falla se conserva y se reintenta primero en la siguiente
+     * vuelta; mientras tanto los puntos nuevos esperan en la cola acotada.</p>
+     */
+    @Scheduled(fixedDelayString = "${drivers.location.flush-interval-ms:5000}")
+    public synchronized void flushTrail() {
+        if (!failedBatch.isEmpty() && !write(failedBatch)) {
+            return;
+        }
+        List<TrailPoint> batch = new ArrayList<>(flushBatchSize);
+        while (pendingTrail.drainTo(batch, flushBatchSize) > 0) {
+            if (!write(batch)) {
+                return;
+            }
+            batch = new ArrayList<>(flushBatchSize);
+        }
+        long dropped = droppedTrailPoints.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn("Dropped {} driver trail points because the queue was full", dropped);
+        }
+    }
+
+    /**
+     * Escribe el lote; si falla lo guarda para reintentarlo o, agotados los
+     * intentos, lo descarta contándolo en la métrica.
+     *
+     * @return {@code true} si el lote se escribió
+     */
+    private boolean write(List<TrailPoint> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_TRAIL, batch, batch.size(), (ps, point) -> {
+                ps.setLong(1, point.driverId());
+                ps.setDouble(2, point.latitude());
+                ps.setDouble(3, point.longitude());
+                ps.setTimestamp(4, new Timestamp(point.recordedAtMillis()));
+            });
+            failedBatch = List.of();
+            failedAttempts = 0;
+            return true;
+        } catch (Exception e) {
+            failedAttempts = failedBatch == batch ? failedAttempts + 1 : 1;
+            if (failedAttempts >= MAX_FLUSH_ATTEMPTS) {
+                logger.error("Discarding {} driver trail points after {} failed writes: {}",
+                        batch.size(), failedAttempts, e.getMessage());
+                droppedTrailCounter.increment(batch.size());
+                failedBatch = List.of();
+                failedAttempts = 0;
+            } else {
+                logger.warn("Error flushing {} driver trail points (attempt {}), will retry: {}",
+                        batch.size(), failedAttempts, e.getMessage());
+                failedBatch = batch;
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushTrail();
+    }
+
+    private record TrailPoint(long driverId, double latitude, double longitude, long recordedAtMillis) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Location;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto muestreado del recorrido de un chofer.
+ *
+ * <p>La entidad existe para que Hibernate cree la tabla; las inserciones se hacen
+ * en lote desde {@link DriverLocationStore} con JDBC, sin crear una entidad por ping.</p>
+ */
+@Entity
+@Table(name = "driver_location_trail",
+        indexes = @Index(name = "idx_trail_driver_time", columnList = "driver_id, recorded_at"))
+public class DriverLocationTrail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
@@ -0,0 +1,53 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Location;
+
+/**
+ * Última posición conocida de un chofer.
+ *
+ * <p>Se crea una sola vez por chofer y se actualiza en sitio con cada ping,
+ * usando el propio objeto como candado (un candado por chofer). Las lecturas
+ * externas se hacen a través de {@link #snapshot()}.</p>
+ */
+public final class DriverPosition {
+
+    private final long driverId;
+    private String username;
+    private double latitude;
+    private double longitude;
+    private long updatedAtMillis;
+    private long lastSampledAtMillis;
+
+    DriverPosition(long driverId) {
+        this.driverId = driverId;
+    }
+
+    /**
+     * Actualiza la posición.
+     *
+     * @return {@code true} si este ping debe guardarse en el recorrido muestreado
+     */
+    synchronized boolean update(String username, double latitude, double longitude, long now, long sampleIntervalMillis) {
+        this.username = username;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.updatedAtMillis = now;
+        if (now - lastSampledAtMillis >= sampleIntervalMillis) {
+            lastSampledAtMillis = now;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(driverId, username, latitude, longitude, updatedAtMillis);
+    }
+
+    synchronized long getUpdatedAtMillis() {
+        return updatedAtMillis;
+    }
+
+    /**
+     * Copia inmutable de la posición en un instante dado.
+     */
+    public record Snapshot(long driverId, String username, double latitude, double longitude, long updatedAtMillis) {
+    }
+}
@@ -1,14 +1,32 @@
 package com.utez.edu.mx.viajesbackend.modules.driver.Profile;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DriverProfileRepository extends JpaRepository<DriverProfile, Long> {
     Optional<DriverProfile> findByUserId(Long userId);
+    Optional<DriverProfile> findByUserUsername(String username);
     boolean existsByUserId(Long userId);
     boolean existsByLicenseNumber(String licenseNumber);
 
     DriverProfile findById(long id);
+
+    // Ids de choferes aprobados con la disponibilidad indicada, restringido a un conjunto de candidatos
+    @Query("select d.id from DriverProfile d where d.id in :ids and d.availability = :availability and d.user.status = true")
+    List<Long> findOperableIdsByAvailability(@Param("ids") Collection<Long> ids,
+                                             @Param("availability") DriverAvailability availability);
+
+    // Cambia la disponibilidad sólo si la actual coincide (evita que un chofer tome dos viajes a la vez)
+    @Modifying
+    @Query("update DriverProfile d set d.availability = :next where d.id = :id and d.availability = :current")
+    int updateAvailabilityIfCurrent(@Param("id") Long id,
+                                    @Param("current") DriverAvailability current,
+                                    @Param("next") DriverAvailability next);
 }
 
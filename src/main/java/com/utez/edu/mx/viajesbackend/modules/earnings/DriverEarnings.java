@@ -0,0 +1,70 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA con las ganancias acumuladas de un conductor en un periodo.
+ *
+ * <p>Cada conductor tiene un renglón {@link EarningsPeriod#TOTAL} y uno por cada
+ * día y semana en que completó viajes. Los renglones se incrementan con un
+ * upsert en la misma transacción que marca el viaje como completado, por lo
+ * que consultar las ganancias es una búsqueda por llave única.</p>
+ */
+@Entity
+@Table(name = "driver_earnings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_earnings_driver_period",
+                columnNames = {"driver_id", "period_type", "period_start"}))
+public class DriverEarnings {
+
+    /** Fecha fija usada como inicio del periodo {@link EarningsPeriod#TOTAL}. */
+    public static final LocalDate TOTAL_PERIOD_START = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", nullable = false, length = 10)
+    private EarningsPeriod periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /** Suma de las tarifas de los viajes completados en el periodo. */
+    @Column(name = "total_fare", nullable = false)
+    private double totalFare;
+
+    /** Número de viajes completados en el periodo. */
+    @Column(name = "trip_count", nullable = false)
+    private long tripCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+
+    public EarningsPeriod getPeriodType() { return periodType; }
+    public void setPeriodType(EarningsPeriod periodType) { this.periodType = periodType; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public double getTotalFare() { return totalFare; }
+    public void setTotalFare(double totalFare) { this.totalFare = totalFare; }
+
+    public long getTripCount() { return tripCount; }
+    public void setTripCount(long tripCount) { this.tripCount = tripCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
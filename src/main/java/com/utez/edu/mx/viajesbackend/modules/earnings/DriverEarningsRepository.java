@@ -0,0 +1,78 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio del libro de ganancias de los conductores.
+ *
+ * <p>Las escrituras usan SQL nativo de MySQL ({@code ON DUPLICATE KEY UPDATE})
+ * para incrementar los acumulados de forma atómica sin leerlos antes.</p>
+ */
+@Repository
+public interface DriverEarningsRepository extends JpaRepository<DriverEarnings, Long> {
+
+    /**
+     * Busca el renglón de un conductor para un periodo.
+     */
+    Optional<DriverEarnings> findByDriverIdAndPeriodTypeAndPeriodStart(Long driverId,
+                                                                      EarningsPeriod periodType,
+                                                                      LocalDate periodStart);
+
+    /**
+     * Suma un viaje completado a los renglones total, diario y semanal del conductor
+     * en una sola sentencia.
+     *
+     * @return filas afectadas
+     */
+    @Modifying
+    @Query(value = "INSERT INTO driver_earnings (driver_id, period_type, period_start, total_fare, trip_count, updated_at) VALUES " +
+            "(:driverId, 'TOTAL', :totalStart, :fare, 1, :now), " +
+            "(:driverId, 'DAY', :day, :fare, 1, :now), " +
+            "(:driverId, 'WEEK', :week, :fare, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE total_fare = total_fare + VALUES(total_fare), " +
+            "trip_count = trip_count + 1, updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int addCompletedTrip(@Param("driverId") Long driverId,
+                         @Param("fare") double fare,
+                         @Param("totalStart") LocalDate totalStart,
+                         @Param("day") LocalDate day,
+                         @Param("week") LocalDate week,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Ingreso total de la plataforma: suma de los acumulados de todos los conductores.
+     */
+    @Query("SELECT COALESCE(SUM(e.totalFare), 0) FROM DriverEarnings e WHERE e.periodType = com.utez.edu.mx.viajesbackend.modules.earnings.EarningsPeriod.TOTAL")
+    double sumTotalFare();
+
+    @Modifying
+    @Query(value = "DELETE FROM driver_earnings", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * Recalcula todos los renglones a partir de los viajes completados.
+     * Un viaje sin {@code completed_at} (anterior al libro) usa {@code updated_at}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO driver_earnings (driver_id, period_type, period_start, total_fare, trip_count, updated_at) " +
+            "SELECT driver_id, 'TOTAL', :totalStart, SUM(fare), COUNT(*), :now FROM trip " +
+            "WHERE status = 'COMPLETED' AND driver_id IS NOT NULL GROUP BY driver_id " +
+            "UNION ALL " +
+            "SELECT driver_id, 'DAY', DATE(COALESCE(completed_at, updated_at)), SUM(fare), COUNT(*), :now FROM trip " +
+            "WHERE status = 'COMPLETED' AND driver_id IS NOT NULL " +
+            "GROUP BY driver_id, DATE(COALESCE(completed_at, updated_at)) " +
+            "UNION ALL " +
+            "SELECT driver_id, 'WEEK', DATE(DATE_SUB(COALESCE(completed_at, updated_at), INTERVAL WEEKDAY(COALESCE(completed_at, updated_at)) DAY)), SUM(fare), COUNT(*), :now FROM trip " +
+            "WHERE status = 'COMPLETED' AND driver_id IS NOT NULL " +
+            "GROUP BY driver_id, DATE(DATE_SUB(COALESCE(completed_at, updated_at), INTERVAL WEEKDAY(COALESCE(completed_at, updated_at)) DAY))",
+            nativeQuery = true)
+    int rebuildFromTrips(@Param("totalStart") LocalDate totalStart, @Param("now") LocalDateTime now);
+}
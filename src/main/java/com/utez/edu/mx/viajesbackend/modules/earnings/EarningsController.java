@@ -0,0 +1,42 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings;
+
+import com.utez.edu.mx.viajesbackend.security.UserDetailsImpl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para consultar las ganancias de los conductores.
+ *
+ * <p>{@code POST /api/earnings/rebuild} está restringido a administradores en
+ * {@code SecurityConfig}.</p>
+ */
+@RestController
+@RequestMapping("/api/earnings")
+public class EarningsController {
+
+    private final EarningsService earningsService;
+
+    public EarningsController(EarningsService earningsService) {
+        this.earningsService = earningsService;
+    }
+
+    /**
+     * Ganancias del conductor (total, hoy y semana en curso) desde el libro de ganancias.
+     * Un conductor sólo puede consultar las suyas; los administradores, las de cualquiera.
+     */
+    @GetMapping("/driver/{driverId}")
+    public ResponseEntity<?> getDriverEarnings(@PathVariable Long driverId, Authentication authentication) {
+        UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+        boolean admin = user.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        return earningsService.getDriverEarnings(driverId, user.getId(), admin);
+    }
+
+    /**
+     * Recalcula el libro de ganancias desde los viajes completados.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        return earningsService.rebuildNow();
+    }
+}
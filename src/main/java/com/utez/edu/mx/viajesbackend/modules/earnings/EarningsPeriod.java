@@ -0,0 +1,13 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings;
+
+/**
+ * Granularidad de un renglón de {@link DriverEarnings}.
+ */
+public enum EarningsPeriod {
+    /** Acumulado histórico; {@code period_start} es {@link DriverEarnings#TOTAL_PERIOD_START}. */
+    TOTAL,
+    /** Día calendario del servidor. */
+    DAY,
+    /** Semana que inicia en lunes. */
+    WEEK
+}
@@ -0,0 +1,191 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings;
+
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
+import com.utez.edu.mx.viajesbackend.modules.earnings.dto.DriverEarningsDTO;
+import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Servicio del libro de ganancias de los conductores.
+ *
+ * <p>{@link #recordCompletedTrip} se invoca dentro de la transacción que marca
+ * el viaje como completado, de modo que el acumulado y el estado del viaje se
+ * confirman o revierten juntos. {@link #rebuild()} recalcula todo desde la
+ * tabla {@code trip} para recuperarse de cualquier desviación.</p>
+ */
+@Service
+public class EarningsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EarningsService.class);
+
+    private final DriverEarningsRepository earningsRepository;
+    private final CustomResponseEntity customResponseEntity;
+    private final TransactionTemplate transactionTemplate;
+    private final DriverProfileRepository driverProfileRepository;
+
+    @Value("${earnings.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public EarningsService(DriverEarningsRepository earningsRepository,
+                           CustomResponseEntity customResponseEntity,
+                           PlatformTransactionManager transactionManager,
+                           DriverProfileRepository driverProfileRepository) {
+        this.earningsRepository = earningsRepository;
+        this.driverProfileRepository = driverProfileRepository;
+        this.customResponseEntity = customResponseEntity;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Suma un viaje completado a los acumulados del conductor.
+     *
+     * @param driverId    perfil del conductor
+     * @param fare        tarifa del viaje
+     * @param completedAt momento de la finalización
+     */
+    @Transactional
+    public void recordCompletedTrip(Long driverId, double fare, LocalDateTime completedAt) {
+        LocalDate day = completedAt.toLocalDate();
+        earningsRepository.addCompletedTrip(driverId, fare, DriverEarnings.TOTAL_PERIOD_START,
+                day, weekStart(day), LocalDateTime.now());
+    }
+
+    /**
+     * Ganancias del conductor: total, de hoy y de la semana en curso.
+     *
+     * @param requesterId usuario autenticado que consulta
+     * @param admin       si el usuario autenticado es administrador
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getDriverEarnings(Long driverId, Long requesterId, boolean admin) {
+        if (!admin) {
+            boolean own = driverProfileRepository.findById(driverId)
+                    .map(profile -> profile.getUser() != null && Objects.equals(profile.getUser().getId(), requesterId))
+                    .orElse(false);
+            if (!own) {
+                return customResponseEntity.get403Response("No puedes consultar las ganancias de otro conductor");
+            }
+        }
+        LocalDate today = LocalDate.now();
+        Optional<DriverEarnings> total = find(driverId, EarningsPeriod.TOTAL, DriverEarnings.TOTAL_PERIOD_START);
+        Optional<DriverEarnings> day = find(driverId, EarningsPeriod.DAY, today);
+        Optional<DriverEarnings> week = find(driverId, EarningsPeriod.WEEK, weekStart(today));
+
+        DriverEarningsDTO dto = new DriverEarningsDTO(
+                driverId,
+                total.map(DriverEarnings::getTotalFare).orElse(0.0),
+                total.map(DriverEarnings::getTripCount).orElse(0L),
+                day.map(DriverEarnings::getTotalFare).orElse(0.0),
+                day.map(DriverEarnings::getTripCount).orElse(0L),
+                week.map(DriverEarnings::getTotalFare).orElse(0.0),
+                week.map(DriverEarnings::getTripCount).orElse(0L)
+        );
+        return customResponseEntity.getOkResponse("Ganancias del conductor", "ok", 200, dto);
+    }
+
+    /**
+     * Ingreso total acumulado del conductor.
+     */
+    @Transactional(readOnly = true)
+    public double getTotalIncome(Long driverId) {
+        return find(driverId, EarningsPeriod.TOTAL, DriverEarnings.TOTAL_PERIOD_START)
+                .map(DriverEarnings::getTotalFare)
+                .orElse(0.0);
+    }
+
+    /**
+     * Ingreso total de la plataforma a partir de los acumulados por conductor.
+     */
+    @Transactional(readOnly = true)
+    public double getPlatformIncome() {
+        return earningsRepository.sumTotalFare();
+    }
+
+    /**
+     * Recalcula todos los acumulados desde la tabla {@code trip}.
+     *
+     * <p>Usa una transacción programática porque también se invoca desde
+     * métodos de esta misma clase, donde {@code @Transactional} no aplica.</p>
+     *
+     * @return renglones generados
+     */
+    public int rebuild() {
+        Integer rows = transactionTemplate.execute(status -> {
+            earningsRepository.deleteAllRows();
+            return earningsRepository.rebuildFromTrips(DriverEarnings.TOTAL_PERIOD_START, LocalDateTime.now());
+        });
+        logger.info("Driver earnings ledger rebuilt with {} rows", rows);
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Llena el libro desde los viajes históricos si la tabla está vacía (primer
+     * despliegue). Corre antes que otros oyentes de arranque que leen el libro,
+     * como la reconciliación del panel de administración.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) return;
+        try {
+            if (earningsRepository.count() == 0) {
+                logger.info("Driver earnings ledger is empty; backfilling from completed trips");
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling driver earnings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrucción programada; desactivada salvo que se configure
+     * {@code earnings.rebuild.cron}.
+     */
+    @Scheduled(cron = "${earnings.rebuild.cron:-}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Error rebuilding driver earnings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrucción manual para administradores.
+     */
+    public ResponseEntity<?> rebuildNow() {
+        try {
+            int rows = rebuild();
+            return customResponseEntity.getOkResponse("Ganancias recalculadas", "ok", 200, rows);
+        } catch (Exception e) {
+            logger.error("Error rebuilding driver earnings: {}", e.getMessage());
+            return customResponseEntity.get400Response("Error al recalcular las ganancias");
+        }
+    }
+
+    private Optional<DriverEarnings> find(Long driverId, EarningsPeriod period, LocalDate start) {
+        return earningsRepository.findByDriverIdAndPeriodTypeAndPeriodStart(driverId, period, start);
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(DayOfWeek.MONDAY);
+    }
+}
@@ -0,0 +1,51 @@
+package com.utez.edu.mx.viajesbackend.modules.earnings.dto;
+
+/**
+ * DTO con las ganancias de un conductor: acumulado histórico, del día y de la semana en curso.
+ */
+public class DriverEarningsDTO {
+
+    private Long driverId;
+    private double totalIncome;
+    private long totalTrips;
+    private double todayIncome;
+    private long todayTrips;
+    private double weekIncome;
+    private long weekTrips;
+
+    public DriverEarningsDTO() {
+    }
+
+    public DriverEarningsDTO(Long driverId, double totalIncome, long totalTrips,
+                             double todayIncome, long todayTrips,
+                             double weekIncome, long weekTrips) {
+        this.driverId = driverId;
+        this.totalIncome = totalIncome;
+        this.totalTrips = totalTrips;
+        this.todayIncome = todayIncome;
+        this.todayTrips = todayTrips;
+        this.weekIncome = weekIncome;
+        this.weekTrips = weekTrips;
+    }
+
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+
+    public double getTotalIncome() { return totalIncome; }
+    public void setTotalIncome(double totalIncome) { this.totalIncome = totalIncome; }
+
+    public long getTotalTrips() { return totalTrips; }
+    public void setTotalTrips(long totalTrips) { this.totalTrips = totalTrips; }
+
+    public double getTodayIncome() { return todayIncome; }
+    public void setTodayIncome(double todayIncome) { this.todayIncome = todayIncome; }
+
+    public long getTodayTrips() { return todayTrips; }
+    public void setTodayTrips(long todayTrips) { this.todayTrips = todayTrips; }
+
+    public double getWeekIncome() { return weekIncome; }
+    public void setWeekIncome(double weekIncome) { this.weekIncome = weekIncome; }
+
+    public long getWeekTrips() { return weekTrips; }
+    public void setWeekTrips(long weekTrips) { this.weekTrips = weekTrips; }
+}
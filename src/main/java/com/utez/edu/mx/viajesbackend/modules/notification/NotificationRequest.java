@@ -0,0 +1,22 @@
+package com.utez.edu.mx.viajesbackend.modules.notification;
+
+/**
+ * Notification to be created as part of a batch.
+ *
+ * <p>Carries the recipient's username so the WebSocket push does not need to
+ * load the {@code User} entity again.</p>
+ *
+ * @param userId   recipient user ID
+ * @param username recipient username (STOMP user destination)
+ * @param type     notification type
+ * @param title    notification title
+ * @param body     notification body
+ * @param tripId   optional trip ID if trip-related
+ */
+public record NotificationRequest(Long userId,
+                                  String username,
+                                  NotificationType type,
+                                  String title,
+                                  String body,
+                                  Long tripId) {
+}
@@ -2,15 +2,28 @@ package com.utez.edu.mx.viajesbackend.modules.notification;
 
 import com.utez.edu.mx.viajesbackend.modules.user.User;
 import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
+import com.utez.edu.mx.viajesbackend.websocket.UserMessageSender;
 import com.utez.edu.mx.viajesbackend.websocket.dto.NotificationMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,15 +40,21 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final UserMessageSender userMessageSender;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notification (user_id, type, title, body, created_at, is_read, trip_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
     public NotificationService(
             NotificationRepository notificationRepository,
             UserRepository userRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            UserMessageSender userMessageSender,
+            JdbcTemplate jdbcTemplate) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.userMessageSender = userMessageSender;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
@@ -79,23 +98,103 @@ public class NotificationService {
         return saved;
     }
 
+    /**
+     * Create several notifications with a single batched insert and send them
+     * via WebSocket once the insert is committed.
+     *
+     * <p>{@code Notification} uses IDENTITY ids, which disables Hibernate's
+     * insert batching, so the rows are written with a JDBC batch instead.</p>
+     *
+     * @param requests notifications to create
+     */
+    @Transactional
+    public void createAndSendNotifications(List<NotificationRequest> requests) {
+        if (requests.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_NOTIFICATION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NotificationRequest r = requests.get(i);
+                        ps.setLong(1, r.userId());
+                        ps.setString(2, r.type().name());
+                        ps.setString(3, r.title());
+                        ps.setString(4, r.body());
+                        ps.setTimestamp(5, now);
+                        ps.setBoolean(6, false);
+                        if (r.tripId() != null) ps.setLong(7, r.tripId());
+                        else ps.setNull(7, Types.BIGINT);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return requests.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<NotificationMessage> messages = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequest r = requests.get(i);
+            if (!userMessageSender.isReachable(r.username())) {
+                // Offline: the notification is only persisted
+                messages.add(null);
+                continue;
+            }
+            NotificationMessage message = new NotificationMessage();
+            if (i < keys.size() && !keys.get(i).isEmpty()) {
+                message.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+            message.setUserId(r.userId());
+            message.setType(r.type());
+            message.setTitle(r.title());
+            message.setBody(r.body());
+            message.setCreatedAt(now.toLocalDateTime());
+            message.setRead(false);
+            message.setTripId(r.tripId());
+            messages.add(message);
+        }
+        logger.info("Created {} notifications in batch", messages.size());
+
+        Runnable send = () -> {
+            for (int i = 0; i < messages.size(); i++) {
+                if (messages.get(i) != null) {
+                    sendNotificationViaWebSocket(requests.get(i).username(), messages.get(i));
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
     /**
      * Send a notification to a user via WebSocket.
      *
      * @param notification the notification to send
      */
     private void sendNotificationViaWebSocket(Notification notification) {
-        try {
-            NotificationMessage message = convertToMessage(notification);
-            messagingTemplate.convertAndSendToUser(
-                    notification.getUser().getUsername(),
-                    "/queue/notifications",
-                    message
-            );
-            logger.info("Notification sent via WebSocket to user: {}", notification.getUser().getUsername());
-        } catch (Exception e) {
-            logger.error("Error sending notification via WebSocket: {}", e.getMessage());
+        String username = notification.getUser().getUsername();
+        if (!userMessageSender.isReachable(username)) {
+            return;
         }
+        sendNotificationViaWebSocket(username, convertToMessage(notification));
+    }
+
+    private void sendNotificationViaWebSocket(String username, NotificationMessage message) {
+        userMessageSender.sendToUser(username, "/queue/notifications", message);
+        logger.debug("Notification sent via WebSocket to user: {}", username);
     }
 
     /**
@@ -0,0 +1,96 @@
+package com.utez.edu.mx.viajesbackend.modules.tariff;
+
+import com.utez.edu.mx.viajesbackend.modules.tariff.dto.TariffDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copia en memoria de la tarifa activa.
+ *
+ * <p>Las lecturas ({@code GET /api/tariff/current} y el cálculo de tarifas de
+ * los viajes) nunca consultan MySQL: devuelven la instantánea guardada en una
+ * referencia atómica. {@link TariffService#updateTariff} la reemplaza al
+ * confirmar el cambio, y en despliegues con varios nodos una tarea periódica
+ * compara el id de la tarifa activa (consulta de un solo valor) y recarga sólo
+ * si cambió.</p>
+ */
+@Component
+public class ActiveTariffCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveTariffCache.class);
+
+    private final TariffRepository tariffRepository;
+
+    /** {@code null} mientras no se ha cargado; {@code Optional.empty()} si no hay tarifa activa. */
+    private final AtomicReference<Optional<TariffDTO>> current = new AtomicReference<>();
+
+    public ActiveTariffCache(TariffRepository tariffRepository) {
+        this.tariffRepository = tariffRepository;
+    }
+
+    /**
+     * Tarifa activa actual.
+     *
+     * @return Optional con la tarifa activa, o vacío si no existe ninguna
+     */
+    public Optional<TariffDTO> get() {
+        Optional<TariffDTO> snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = reload();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reemplaza la instantánea con una tarifa recién confirmada.
+     */
+    public void replace(TariffDTO tariff) {
+        current.set(Optional.of(tariff));
+    }
+
+    /**
+     * Carga la tarifa activa desde la base de datos.
+     */
+    public Optional<TariffDTO> reload() {
+        Optional<TariffDTO> snapshot = tariffRepository.findActiveTariff().map(t -> new TariffDTO(
+                t.getId(),
+                t.getTariffValue(),
+                t.getModificationDate(),
+                t.getModifierName(),
+                t.getChangeReason()
+        ));
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        reload();
+    }
+
+    /**
+     * Recarga la tarifa si otro nodo la cambió.
+     */
+    @Scheduled(fixedDelayString = "${tariff.cache.version-check-ms:30000}")
+    public void checkVersion() {
+        try {
+            Optional<TariffDTO> snapshot = current.get();
+            Long cachedId = snapshot != null ? snapshot.map(TariffDTO::getId).orElse(null) : null;
+            Long activeId = tariffRepository.findActiveTariffId();
+            if (snapshot == null || !Objects.equals(cachedId, activeId)) {
+                reload();
+                logger.info("Active tariff cache refreshed (id {})", activeId);
+            }
+        } catch (Exception e) {
+            logger.error("Error checking active tariff version: {}", e.getMessage());
+        }
+    }
+}
@@ -25,6 +25,14 @@ public interface TariffRepository extends JpaRepository<Tariff, Long> {
     @Query("SELECT t FROM Tariff t WHERE t.isActive = true ORDER BY t.modificationDate DESC")
     Optional<Tariff> findActiveTariff();
 
+    /**
+     * Id de la tarifa activa más reciente, usado como versión de la caché.
+     *
+     * @return id de la tarifa activa, o {@code null} si no existe ninguna
+     */
+    @Query("SELECT MAX(t.id) FROM Tariff t WHERE t.isActive = true")
+    Long findActiveTariffId();
+
     /**
      * Desactiva todas las tarifas existentes.
      * Este método debe ejecutarse en un contexto transaccional.
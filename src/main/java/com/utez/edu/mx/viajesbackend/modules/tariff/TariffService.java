@@ -6,6 +6,8 @@ import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
@@ -22,28 +24,30 @@ public class TariffService {
 
     private final TariffRepository tariffRepository;
     private final CustomResponseEntity customResponseEntity;
+    private final ActiveTariffCache activeTariffCache;
 
     public TariffService(TariffRepository tariffRepository,
-                         CustomResponseEntity customResponseEntity) {
+                         CustomResponseEntity customResponseEntity,
+                         ActiveTariffCache activeTariffCache) {
         this.tariffRepository = tariffRepository;
         this.customResponseEntity = customResponseEntity;
+        this.activeTariffCache = activeTariffCache;
     }
 
     /**
-     * Obtiene la tarifa activa actual del sistema.
+     * Obtiene la tarifa activa actual del sistema desde {@link ActiveTariffCache}.
      *
      * @return ResponseEntity con la tarifa activa o mensaje de error
      */
-    @Transactional(readOnly = true)
     public ResponseEntity<?> getCurrentTariff() {
         try {
-            Optional<Tariff> tariffOpt = tariffRepository.findActiveTariff();
+            Optional<TariffDTO> tariffOpt = activeTariffCache.get();
 
             if (tariffOpt.isEmpty()) {
                 return customResponseEntity.get404Response();
             }
 
-            TariffDTO tariffDTO = transformToDTO(tariffOpt.get());
+            TariffDTO tariffDTO = tariffOpt.get();
             return customResponseEntity.getOkResponse(
                 "Tarifa actual obtenida correctamente",
                 "ok",
@@ -83,8 +87,15 @@ public class TariffService {
             // 3. Guardar en base de datos
             Tariff savedTariff = tariffRepository.save(newTariff);
 
-            // 4. Convertir a DTO y devolver respuesta
+            // 4. Convertir a DTO y publicarlo en la caché al confirmar
             TariffDTO result = transformToDTO(savedTariff);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activeTariffCache.replace(result);
+                }
+            });
+
             return customResponseEntity.getOkResponse(
                 "Tarifa actualizada correctamente",
                 "ok",
@@ -0,0 +1,54 @@
+package com.utez.edu.mx.viajesbackend.modules.trip.DTO;
+
+/**
+ * DTO con la cotización de un viaje antes de solicitarlo.
+ */
+public class FareQuoteDTO {
+
+    private double distanceKm;
+    private double baseFare;
+    private double perKm;
+    private double fare;
+
+    public FareQuoteDTO() {
+    }
+
+    public FareQuoteDTO(double distanceKm, double baseFare, double perKm, double fare) {
+        this.distanceKm = distanceKm;
+        this.baseFare = baseFare;
+        this.perKm = perKm;
+        this.fare = fare;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public double getBaseFare() {
+        return baseFare;
+    }
+
+    public void setBaseFare(double baseFare) {
+        this.baseFare = baseFare;
+    }
+
+    public double getPerKm() {
+        return perKm;
+    }
+
+    public void setPerKm(double perKm) {
+        this.perKm = perKm;
+    }
+
+    public double getFare() {
+        return fare;
+    }
+
+    public void setFare(double fare) {
+        this.fare = fare;
+    }
+}
@@ -50,6 +50,30 @@ public class TripDTO {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Constructor usado por las proyecciones JPQL de {@code TripRepository}:
+     * recibe las partes del nombre del cliente y del conductor tal como vienen
+     * de la consulta y arma los nombres completos.
+     */
+    public TripDTO(Long id, String originAddress, Double originLatitude, Double originLongitude,
+                   String destinationAddress, Double destinationLatitude, Double destinationLongitude,
+                   Double fare, TripStatus status,
+                   String clientFirstName, String clientSurname, String clientLastname, String clientPhone,
+                   String driverFirstName, String driverSurname, String driverLastname, String driverLicense,
+                   Integer rating, LocalDateTime createdAt) {
+        this(id, originAddress, originLatitude, originLongitude,
+                destinationAddress, destinationLatitude, destinationLongitude,
+                fare, status,
+                fullName(clientFirstName, clientSurname, clientLastname), clientPhone,
+                fullName(driverFirstName, driverSurname, driverLastname), driverLicense,
+                rating, createdAt);
+    }
+
+    private static String fullName(String name, String surname, String lastname) {
+        if (name == null && surname == null) return null;
+        return String.format("%s %s %s", name, surname, lastname != null ? lastname : "").trim();
+    }
+
     // Getters y setters
     public Long getId() {
         return id;
@@ -0,0 +1,274 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverLocationStore;
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverPosition;
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverAvailability;
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
+import com.utez.edu.mx.viajesbackend.websocket.TripWebSocketController;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de emparejamiento por lotes entre viajes solicitados y choferes disponibles.
+ *
+ * <p>Cada {@code dispatch.matcher.interval-ms} toma los viajes abiertos del
+ * {@link OpenTripIndex} que no tienen una oferta vigente y los choferes
+ * {@link DriverAvailability#DISPONIBLE} con posición reciente en el
+ * {@link DriverLocationStore}. Ordena los pares viaje-chofer dentro de
+ * {@code dispatch.max-pickup-km} por distancia de recogida y los asigna de forma
+ * voraz, de modo que cada viaje y cada chofer reciben a lo sumo una oferta por ronda.</p>
+ *
+ * <p>La oferta se envía sólo al chofer elegido y es exclusiva durante
+ * {@code dispatch.offer-timeout-ms}; mientras tanto otros choferes no pueden
+ * aceptar ese viaje. Si expira o el chofer la rechaza, el viaje vuelve a
+ * participar en la siguiente ronda sin ese chofer.</p>
+ *
+ * <p>Está apagado por defecto: mientras {@code dispatch.matcher.enabled} sea
+ * {@code false} los viajes nuevos se siguen difundiendo a los choferes, que es
+ * lo que esperan los clientes que todavía no manejan {@link #OFFER_MESSAGE}.</p>
+ */
+@Component
+public class DispatchMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchMatcher.class);
+
+    /** Mensaje con el que se identifica una oferta en {@code /user/queue/trips}. */
+    public static final String OFFER_MESSAGE = "TRIP_OFFER";
+
+    /** Antigüedad máxima de la posición de un chofer para considerarlo. */
+    private static final long MAX_POSITION_AGE_MS = 60_000L;
+
+    private final OpenTripIndex openTripIndex;
+    private final DriverLocationStore driverLocationStore;
+    private final DriverProfileRepository driverProfileRepository;
+    private final TripRepository tripRepository;
+    private final TripWebSocketController tripWebSocketController;
+
+    private final boolean enabled;
+    private final long intervalMs;
+    private final long offerTimeoutMs;
+    private final double maxPickupKm;
+    private final int maxTripsPerRound;
+
+    private final Map<Long, Offer> offersByTrip = new ConcurrentHashMap<>();
+    private final Map<Long, Long> offeredTripByDriver = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> declinedDriversByTrip = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public DispatchMatcher(OpenTripIndex openTripIndex,
+                           DriverLocationStore driverLocationStore,
+                           DriverProfileRepository driverProfileRepository,
+                           TripRepository tripRepository,
+                           TripWebSocketController tripWebSocketController,
+                           @Value("${dispatch.matcher.enabled:false}") boolean enabled,
+                           @Value("${dispatch.matcher.interval-ms:500}") long intervalMs,
+                           @Value("${dispatch.offer-timeout-ms:15000}") long offerTimeoutMs,
+                           @Value("${dispatch.max-pickup-km:8}") double maxPickupKm,
+                           @Value("${dispatch.max-trips-per-round:200}") int maxTripsPerRound) {
+        this.openTripIndex = openTripIndex;
+        this.driverLocationStore = driverLocationStore;
+        this.driverProfileRepository = driverProfileRepository;
+        this.tripRepository = tripRepository;
+        this.tripWebSocketController = tripWebSocketController;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxPickupKm = maxPickupKm;
+        this.maxTripsPerRound = maxTripsPerRound;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si el viaje tiene una oferta vigente para un chofer distinto al indicado.
+     */
+    public boolean isOfferedToAnother(Long tripId, Long driverId) {
+        Offer offer = offersByTrip.get(tripId);
+        return offer != null && !offer.isExpired(System.currentTimeMillis())
+                && !Objects.equals(offer.driverId, driverId);
+    }
+
+    /** Indica si el viaje tiene una oferta vigente para el chofer indicado. */
+    public boolean isOfferedTo(Long tripId, Long driverId) {
+        Offer offer = offersByTrip.get(tripId);
+        return offer != null && !offer.isExpired(System.currentTimeMillis())
+                && Objects.equals(offer.driverId, driverId);
+    }
+
+    /**
+     * Registra que el chofer rechazó la oferta; no se le volverá a ofrecer este viaje.
+     */
+    public void decline(Long tripId, Long driverId) {
+        Offer offer = offersByTrip.get(tripId);
+        if (offer != null && Objects.equals(offer.driverId, driverId)) {
+            releaseOffer(tripId, offer);
+        }
+        declinedDriversByTrip.computeIfAbsent(tripId, k -> ConcurrentHashMap.newKeySet()).add(driverId);
+    }
+
+    /**
+     * Olvida el estado de emparejamiento de un viaje que ya no está abierto.
+     */
+    public void forget(Long tripId) {
+        Offer offer = offersByTrip.get(tripId);
+        if (offer != null) {
+            releaseOffer(tripId, offer);
+        }
+        declinedDriversByTrip.remove(tripId);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dispatch-matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::matchRound, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Ejecuta una ronda de emparejamiento.
+     *
+     * <p>Corre en su propio hilo para no ocupar el planificador compartido de
+     * {@code @Scheduled}. Cada chofer consulta sólo los viajes cercanos del
+     * {@link OpenTripIndex}, así que el costo crece con los pares que de verdad
+     * están dentro de {@code dispatch.max-pickup-km} y no con viajes × choferes.</p>
+     */
+    public void matchRound() {
+        if (!enabled) return;
+        try {
+            long now = System.currentTimeMillis();
+            expireOffers(now);
+
+            Set<Long> trips = pendingTrips();
+            if (trips.isEmpty()) return;
+
+            List<Candidate> candidates = new ArrayList<>();
+            for (DriverPosition.Snapshot driver : driverLocationStore.findFresh(MAX_POSITION_AGE_MS)) {
+                if (offeredTripByDriver.containsKey(driver.driverId())) continue;
+                for (OpenTripIndex.NearbyTrip nearby : openTripIndex.findNearby(driver.latitude(), driver.longitude(), maxPickupKm)) {
+                    Long tripId = nearby.trip().getId();
+                    if (!trips.contains(tripId)) continue;
+                    if (declinedDriversByTrip.getOrDefault(tripId, Collections.emptySet()).contains(driver.driverId())) continue;
+                    candidates.add(new Candidate(tripId, driver, nearby.distanceKm()));
+                }
+            }
+            if (candidates.isEmpty()) return;
+
+            Set<Long> operable = operableDrivers(candidates);
+            candidates.removeIf(c -> !operable.contains(c.driver.driverId()));
+            candidates.sort(Comparator.comparingDouble(Candidate::distanceKm));
+
+            Map<Long, DriverPosition.Snapshot> assignment = new HashMap<>();
+            Set<Long> assignedDrivers = new HashSet<>();
+            for (Candidate c : candidates) {
+                if (assignment.containsKey(c.tripId) || assignedDrivers.contains(c.driver.driverId())) continue;
+                assignment.put(c.tripId, c.driver);
+                assignedDrivers.add(c.driver.driverId());
+            }
+            if (assignment.isEmpty()) return;
+
+            sendOffers(assignment, now);
+        } catch (Exception e) {
+            logger.error("Error in dispatch matching round: {}", e.getMessage());
+        }
+    }
+
+    private Set<Long> pendingTrips() {
+        List<OpenTripIndex.OpenTrip> out = new ArrayList<>();
+        for (OpenTripIndex.OpenTrip trip : openTripIndex.entries()) {
+            if (!offersByTrip.containsKey(trip.getDto().getId())) {
+                out.add(trip);
+            }
+        }
+        if (out.size() > maxTripsPerRound) {
+            // Prioriza las solicitudes más antiguas
+            out.sort(Comparator.comparing(t -> t.getDto().getCreatedAt(),
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            out = out.subList(0, maxTripsPerRound);
+        }
+        Set<Long> ids = new HashSet<>(out.size() * 2);
+        for (OpenTripIndex.OpenTrip trip : out) {
+            ids.add(trip.getDto().getId());
+        }
+        return ids;
+    }
+
+    /** Consulta la disponibilidad sólo de los choferes que tienen algún viaje al alcance. */
+    private Set<Long> operableDrivers(List<Candidate> candidates) {
+        Set<Long> driverIds = new HashSet<>();
+        for (Candidate c : candidates) {
+            driverIds.add(c.driver.driverId());
+        }
+        return new HashSet<>(driverProfileRepository.findOperableIdsByAvailability(
+                driverIds, DriverAvailability.DISPONIBLE));
+    }
+
+    private void sendOffers(Map<Long, DriverPosition.Snapshot> assignment, long now) {
+        for (Trip trip : tripRepository.findAllById(assignment.keySet())) {
+            DriverPosition.Snapshot driver = assignment.get(trip.getId());
+            if (trip.getStatus() != TripStatus.REQUESTED || trip.getDriver() != null) {
+                continue;
+            }
+            Offer offer = new Offer(driver.driverId(), now + offerTimeoutMs);
+            offersByTrip.put(trip.getId(), offer);
+            offeredTripByDriver.put(driver.driverId(), trip.getId());
+            tripWebSocketController.sendTripUpdateToDriver(driver.username(), trip, OFFER_MESSAGE);
+        }
+        logger.debug("Dispatch round offered {} trips", assignment.size());
+    }
+
+    private void expireOffers(long now) {
+        offersByTrip.forEach((tripId, offer) -> {
+            if (offer.isExpired(now)) {
+                releaseOffer(tripId, offer);
+                declinedDriversByTrip.computeIfAbsent(tripId, k -> ConcurrentHashMap.newKeySet()).add(offer.driverId);
+            }
+        });
+        declinedDriversByTrip.keySet().removeIf(tripId -> !openTripIndex.contains(tripId));
+    }
+
+    private void releaseOffer(Long tripId, Offer offer) {
+        offersByTrip.remove(tripId, offer);
+        offeredTripByDriver.remove(offer.driverId, tripId);
+    }
+
+    private static final class Offer {
+        private final long driverId;
+        private final long expiresAtMillis;
+
+        private Offer(long driverId, long expiresAtMillis) {
+            this.driverId = driverId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+
+    private record Candidate(Long tripId, DriverPosition.Snapshot driver, double distanceKm) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.tariff.ActiveTariffCache;
+import com.utez.edu.mx.viajesbackend.modules.tariff.Tariff;
+import com.utez.edu.mx.viajesbackend.modules.tariff.dto.TariffDTO;
+import com.utez.edu.mx.viajesbackend.utils.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Calcula la tarifa de un viaje a partir de sus coordenadas.
+ *
+ * <p>La distancia se aproxima con la fórmula haversine multiplicada por
+ * {@code fare.road-factor} para compensar que las calles no siguen la línea
+ * recta. El precio es la tarifa activa ({@link Tariff#getTariffValue()}, leída
+ * de {@link ActiveTariffCache}) como banderazo más {@code fare.per-km} por kilómetro, con {@code fare.minimum}
+ * como mínimo. Todo el cálculo trabaja con primitivos y no consulta la base
+ * de datos, por lo que puede llamarse en cada movimiento del mapa.</p>
+ */
+@Component
+public class FareEngine {
+
+    private final ActiveTariffCache activeTariffCache;
+    private final double perKm;
+    private final double roadFactor;
+    private final double minimum;
+    private final double defaultBase;
+
+    public FareEngine(ActiveTariffCache activeTariffCache,
+                      @Value("${fare.per-km:8.5}") double perKm,
+                      @Value("${fare.road-factor:1.3}") double roadFactor,
+                      @Value("${fare.minimum:50}") double minimum,
+                      @Value("${fare.default-base:50}") double defaultBase) {
+        this.activeTariffCache = activeTariffCache;
+        this.perKm = perKm;
+        this.roadFactor = roadFactor;
+        this.minimum = minimum;
+        this.defaultBase = defaultBase;
+    }
+
+    /**
+     * Distancia estimada por carretera entre dos puntos.
+     *
+     * @return kilómetros aproximados
+     */
+    public double roadDistanceKm(double originLat, double originLng, double destLat, double destLng) {
+        return GeoUtils.haversineKm(originLat, originLng, destLat, destLng) * roadFactor;
+    }
+
+    /**
+     * Tarifa para una distancia ya calculada, redondeada a centavos.
+     */
+    public double fareForDistance(double distanceKm) {
+        return fareForDistance(distanceKm, getBaseFare());
+    }
+
+    /**
+     * Tarifa para una distancia con un banderazo ya leído, para que quien
+     * también muestra el banderazo use la misma tarifa en ambos valores.
+     */
+    public double fareForDistance(double distanceKm, double baseFare) {
+        double fare = Math.max(baseFare + perKm * distanceKm, minimum);
+        return Math.round(fare * 100.0) / 100.0;
+    }
+
+    /**
+     * Tarifa entre dos coordenadas.
+     */
+    public double calculate(double originLat, double originLng, double destLat, double destLng) {
+        return fareForDistance(roadDistanceKm(originLat, originLng, destLat, destLng));
+    }
+
+    /**
+     * Banderazo vigente según {@link ActiveTariffCache}, o {@code fare.default-base}
+     * si no hay tarifa activa.
+     */
+    public double getBaseFare() {
+        Optional<TariffDTO> active = activeTariffCache.get();
+        return active.isPresent() && active.get().getTariffValue() != null
+                ? active.get().getTariffValue() : defaultBase;
+    }
+
+    public double getPerKm() {
+        return perKm;
+    }
+}
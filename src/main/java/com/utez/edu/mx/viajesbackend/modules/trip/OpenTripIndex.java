@@ -0,0 +1,188 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO;
+import com.utez.edu.mx.viajesbackend.utils.GeoUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial en memoria de los viajes abiertos ({@link TripStatus#REQUESTED}).
+ *
+ * <p>Divide el mapa en celdas de {@link #CELL_SIZE_DEG} grados indexadas por el
+ * origen del viaje. Una consulta de cercanía recorre las celdas que cubren el
+ * radio solicitado o, si son más que las celdas ocupadas, sólo las ocupadas;
+ * así su costo está acotado por el número de viajes abiertos y no por el área
+ * consultada ni por el tamaño de la tabla {@code trip}.</p>
+ *
+ * <p>{@link TripService} lo mantiene sincronizado al solicitar, aceptar, cancelar
+ * o rechazar viajes y lo reconstruye desde la base de datos al arrancar.</p>
+ */
+@Component
+public class OpenTripIndex {
+
+    /** Tamaño de la celda en grados (~1.1 km de latitud). */
+    static final double CELL_SIZE_DEG = 0.01;
+
+    /** Radio máximo permitido en una consulta, para acotar las celdas recorridas. */
+    public static final double MAX_RADIUS_KM = 50.0;
+
+    private final Map<Long, Map<Long, OpenTrip>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, OpenTrip> byTripId = new ConcurrentHashMap<>();
+
+    /**
+     * Registra (o reemplaza) un viaje abierto en el índice.
+     *
+     * @param dto representación ya construida del viaje que se devolverá a los conductores
+     */
+    public void add(TripDTO dto) {
+        if (dto.getId() == null || !GeoUtils.isValidCoordinate(dto.getOriginLatitude(), dto.getOriginLongitude())) {
+            return;
+        }
+        remove(dto.getId());
+        OpenTrip entry = new OpenTrip(dto, cellKey(dto.getOriginLatitude(), dto.getOriginLongitude()));
+        cells.computeIfAbsent(entry.cell, k -> new ConcurrentHashMap<>()).put(dto.getId(), entry);
+        byTripId.put(dto.getId(), entry);
+    }
+
+    /**
+     * Elimina un viaje del índice (aceptado, cancelado o rechazado).
+     */
+    public void remove(Long tripId) {
+        if (tripId == null) return;
+        OpenTrip entry = byTripId.remove(tripId);
+        if (entry == null) return;
+        cells.computeIfPresent(entry.cell, (k, bucket) -> {
+            bucket.remove(tripId);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    /** Indica si el viaje sigue abierto según el índice. */
+    public boolean contains(Long tripId) {
+        return tripId != null && byTripId.containsKey(tripId);
+    }
+
+    /** Número de viajes abiertos indexados. */
+    public int size() {
+        return byTripId.size();
+    }
+
+    /** Todos los viajes abiertos, del más reciente al más antiguo. */
+    public List<TripDTO> findAll() {
+        List<TripDTO> out = new ArrayList<>(byTripId.size());
+        for (OpenTrip entry : byTripId.values()) {
+            out.add(entry.dto);
+        }
+        out.sort(Comparator.comparing(TripDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return out;
+    }
+
+    /** Vista de sólo lectura de las entradas, para procesos internos como el emparejamiento. */
+    public Collection<OpenTrip> entries() {
+        return byTripId.values();
+    }
+
+    /**
+     * Busca los viajes abiertos cuyo origen está dentro del radio indicado.
+     *
+     * @return viajes ordenados por distancia ascendente al punto consultado
+     */
+    public List<NearbyTrip> findNearby(double lat, double lng, double radiusKm) {
+        double radius = Math.min(radiusKm, MAX_RADIUS_KM);
+        double latSpan = radius / GeoUtils.KM_PER_DEGREE_LAT;
+        double cos = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double lngSpan = radius / (GeoUtils.KM_PER_DEGREE_LAT * cos);
+
+        int minLat = cellIndex(lat - latSpan);
+        int maxLat = cellIndex(lat + latSpan);
+        int minLng = cellIndex(lng - lngSpan);
+        int maxLng = cellIndex(lng + lngSpan);
+
+        List<NearbyTrip> out = new ArrayList<>();
+        long boxCells = (long) (maxLat - minLat + 1) * (maxLng - minLng + 1);
+        if (boxCells > cells.size()) {
+            // Radio grande o índice disperso: más barato filtrar las celdas ocupadas
+            for (Map.Entry<Long, Map<Long, OpenTrip>> cell : cells.entrySet()) {
+                int i = latIndexOf(cell.getKey());
+                int j = lngIndexOf(cell.getKey());
+                if (i >= minLat && i <= maxLat && j >= minLng && j <= maxLng) {
+                    collect(cell.getValue(), lat, lng, radius, out);
+                }
+            }
+        } else {
+            for (int i = minLat; i <= maxLat; i++) {
+                for (int j = minLng; j <= maxLng; j++) {
+                    Map<Long, OpenTrip> bucket = cells.get(pack(i, j));
+                    if (bucket != null) {
+                        collect(bucket, lat, lng, radius, out);
+                    }
+                }
+            }
+        }
+        out.sort(Comparator.comparingDouble(NearbyTrip::distanceKm));
+        return out;
+    }
+
+    private static void collect(Map<Long, OpenTrip> bucket, double lat, double lng, double radius,
+                                List<NearbyTrip> out) {
+        for (OpenTrip entry : bucket.values()) {
+            double d = GeoUtils.haversineKm(lat, lng, entry.lat, entry.lng);
+            if (d <= radius) {
+                out.add(new NearbyTrip(entry.dto, d));
+            }
+        }
+    }
+
+    private static long cellKey(double lat, double lng) {
+        return pack(cellIndex(lat), cellIndex(lng));
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEG);
+    }
+
+    private static long pack(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+
+    private static int latIndexOf(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    private static int lngIndexOf(long cell) {
+        return (int) cell;
+    }
+
+    /**
+     * Entrada del índice: instantánea inmutable del viaje abierto y su celda.
+     */
+    public static final class OpenTrip {
+        private final TripDTO dto;
+        private final double lat;
+        private final double lng;
+        private final long cell;
+
+        private OpenTrip(TripDTO dto, long cell) {
+            this.dto = dto;
+            this.lat = dto.getOriginLatitude();
+            this.lng = dto.getOriginLongitude();
+            this.cell = cell;
+        }
+
+        public TripDTO getDto() { return dto; }
+        public double getLat() { return lat; }
+        public double getLng() { return lng; }
+    }
+
+    /**
+     * Resultado de una consulta de cercanía.
+     */
+    public record NearbyTrip(TripDTO trip, double distanceKm) {
+    }
+}
@@ -14,7 +14,10 @@ import java.time.LocalDateTime;
  * pasa por distintas etapas que se reflejan en el campo {@link #status}.</p>
  */
 @Entity
-@Table(name = "trip")
+@Table(name = "trip", indexes = {
+        @Index(name = "idx_trip_client_created", columnList = "client_id, created_at, id"),
+        @Index(name = "idx_trip_driver_created", columnList = "driver_id, created_at, id")
+})
 public class Trip {
 
     @Id
@@ -90,6 +93,13 @@ public class Trip {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Momento en que ambas partes confirmaron la finalización. Define el día y la
+     * semana en que el viaje cuenta para las ganancias del conductor.
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
     /**
      * Motivo de cancelación en caso de que el viaje se cancele. Es opcional.
      */
@@ -235,6 +245,14 @@ public class Trip {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
     public String getCancelReason() {
         return cancelReason;
     }
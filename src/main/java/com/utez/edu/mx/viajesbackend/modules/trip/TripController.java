@@ -26,6 +26,15 @@ public class TripController {
         return tripService.requestTrip(dto);
     }
 
+    /** Cotiza un viaje a partir de sus coordenadas, sin crearlo. */
+    @GetMapping("/quote")
+    public ResponseEntity<?> quoteTrip(@RequestParam Double originLat,
+                                       @RequestParam Double originLng,
+                                       @RequestParam Double destLat,
+                                       @RequestParam Double destLng) {
+        return tripService.quoteTrip(originLat, originLng, destLat, destLng);
+    }
+
     /** Obtiene los detalles de un viaje. */
     @GetMapping("/{tripId}/details")
     public ResponseEntity<?> getTripDetails(@PathVariable Long tripId,
@@ -48,10 +57,15 @@ public class TripController {
         return tripService.rateTrip(clientId, dto);
     }
 
-    /** Historial de viajes de un cliente. */
+    /**
+     * Historial de viajes de un cliente, paginado por cursor. La respuesta incluye
+     * {@code nextCursor}, que se envía como {@code cursor} para pedir la siguiente página.
+     */
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<?> getClientTripHistory(@PathVariable Long clientId) {
-        return tripService.getClientTripHistory(clientId);
+    public ResponseEntity<?> getClientTripHistory(@PathVariable Long clientId,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor) {
+        return tripService.getClientTripHistory(clientId, limit, cursor);
     }
 
     /** Solicitudes de viaje asignadas a un conductor. */
@@ -60,10 +74,15 @@ public class TripController {
         return tripService.getAssignedTrips(driverId);
     }
 
-    /** Solicitudes de viaje disponibles (sin conductor) para que los conductores las vean. */
+    /**
+     * Solicitudes de viaje disponibles (sin conductor) para que los conductores las vean.
+     * Con {@code lat}/{@code lng} devuelve sólo las cercanas, ordenadas por distancia.
+     */
     @GetMapping("/available")
-    public ResponseEntity<?> getAvailableTrips() {
-        return tripService.getAvailableTrips();
+    public ResponseEntity<?> getAvailableTrips(@RequestParam(required = false) Double lat,
+                                               @RequestParam(required = false) Double lng,
+                                               @RequestParam(required = false) Double radiusKm) {
+        return tripService.getAvailableTrips(lat, lng, radiusKm);
     }
 
     /** Permite al conductor aceptar un viaje solicitado. */
@@ -121,10 +140,12 @@ public class TripController {
         return tripService.startTripByClient(clientId, tripId);
     }
 
-    /** Historial de viajes e ingresos de un conductor. */
+    /** Historial de viajes (paginado por cursor) e ingresos de un conductor. */
     @GetMapping("/driver/{driverId}")
-    public ResponseEntity<?> getDriverTripHistory(@PathVariable Long driverId) {
-        return tripService.getDriverTripHistory(driverId);
+    public ResponseEntity<?> getDriverTripHistory(@PathVariable Long driverId,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor) {
+        return tripService.getDriverTripHistory(driverId, limit, cursor);
     }
 
     /** Marca el viaje como completado por parte del conductor. */
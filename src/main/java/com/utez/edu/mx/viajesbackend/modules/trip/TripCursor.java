@@ -0,0 +1,39 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición opaca dentro de un historial de viajes ordenado por
+ * {@code (created_at DESC, id DESC)}.
+ *
+ * <p>Se entrega al cliente como Base64 URL-safe y se usa en la siguiente
+ * consulta como límite superior de la llave compuesta, de modo que cada página
+ * es un recorrido de índice de tamaño fijo sin importar su profundidad.</p>
+ *
+ * @param createdAt fecha de creación del último viaje entregado
+ * @param id        id del último viaje entregado
+ */
+record TripCursor(LocalDateTime createdAt, Long id) {
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    static TripCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new TripCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
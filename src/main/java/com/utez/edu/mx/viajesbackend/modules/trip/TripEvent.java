@@ -0,0 +1,15 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+/**
+ * Evento de dominio publicado por {@link TripService} cada vez que un viaje cambia.
+ *
+ * <p>Los efectos secundarios (mensajes WebSocket y notificaciones) los atiende
+ * {@link TripEventListener} después del commit, por lo que nunca llegan a los
+ * clientes cambios de transacciones que se revirtieron.</p>
+ *
+ * @param trip       viaje en el estado confirmado
+ * @param type       tipo de cambio
+ * @param prevStatus estado del viaje antes del cambio
+ */
+public record TripEvent(Trip trip, TripEventType type, TripStatus prevStatus) {
+}
@@ -0,0 +1,115 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.notification.NotificationRequest;
+import com.utez.edu.mx.viajesbackend.modules.notification.NotificationService;
+import com.utez.edu.mx.viajesbackend.modules.notification.NotificationType;
+import com.utez.edu.mx.viajesbackend.modules.user.User;
+import com.utez.edu.mx.viajesbackend.utils.KeyedLaneExecutor;
+import com.utez.edu.mx.viajesbackend.websocket.TripWebSocketController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Atiende los efectos secundarios de los cambios de estado de un viaje.
+ *
+ * <p>Se ejecuta sólo cuando la transacción que publicó el {@link TripEvent}
+ * confirma, y en el carril de {@code tripEventLanes} que corresponde al viaje,
+ * de modo que la petición HTTP libera la conexión a la base de datos sin
+ * esperar el envío de mensajes STOMP ni la inserción de notificaciones, y los
+ * eventos de un mismo viaje se entregan en orden. Si la transacción se
+ * revierte el evento se descarta.</p>
+ */
+@Component
+public class TripEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripEventListener.class);
+
+    private final TripWebSocketController tripWebSocketController;
+    private final NotificationService notificationService;
+    private final DispatchMatcher dispatchMatcher;
+    private final KeyedLaneExecutor tripEventLanes;
+
+    public TripEventListener(TripWebSocketController tripWebSocketController,
+                             NotificationService notificationService,
+                             DispatchMatcher dispatchMatcher,
+                             KeyedLaneExecutor tripEventLanes) {
+        this.tripWebSocketController = tripWebSocketController;
+        this.notificationService = notificationService;
+        this.dispatchMatcher = dispatchMatcher;
+        this.tripEventLanes = tripEventLanes;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTripEvent(TripEvent event) {
+        tripEventLanes.execute(event.trip().getId(), () -> handle(event));
+    }
+
+    private void handle(TripEvent event) {
+        Trip trip = event.trip();
+        try {
+            List<NotificationRequest> notifications = new ArrayList<>(2);
+            switch (event.type()) {
+                case REQUESTED -> {
+                    // Con el emparejador activo la oferta se envía sólo al chofer elegido
+                    if (!dispatchMatcher.isEnabled()) {
+                        tripWebSocketController.broadcastNewTripToDrivers(trip);
+                    }
+                    notifications.add(toClient(trip, NotificationType.OK, "Viaje Solicitado", "Tu viaje ha sido solicitado exitosamente."));
+                }
+                case ACCEPTED -> {
+                    tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "Trip accepted");
+                    notifications.add(toClient(trip, NotificationType.OK, "Viaje aceptado", "Conductor asignado a tu viaje"));
+                }
+                case REJECTED -> {
+                    tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "Viaje rechazado");
+                    notifications.add(toClient(trip, NotificationType.WARN, "Viaje cancelado", "El conductor canceló el viaje"));
+                }
+                case DRIVER_ARRIVED -> {
+                    tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "DRIVER_ARRIVED");
+                    notifications.add(toClient(trip, NotificationType.INFO, "Tu Conductor ha llegado", "Tu conductor ha llegado al punto de partida."));
+                }
+                case DROPOFF_ARRIVED -> {
+                    tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "DROPOFF_ARRIVED");
+                    tripWebSocketController.sendTripUpdateToDriver(trip.getDriver().getUser().getUsername(), trip, "DROPOFF_ARRIVED");
+                    notifications.add(toClient(trip, NotificationType.INFO, "Llegaste a tu destino", "El conductor ha llegado al destino."));
+                }
+                case START_CONFIRMED ->
+                        tripWebSocketController.sendTripUpdateToBoth(trip, "Esperando confirmación de inicio");
+                case STARTED -> {
+                    tripWebSocketController.sendTripUpdateToBoth(trip, "Viaje iniciado correctamente");
+                    notifications.add(toClient(trip, NotificationType.INFO, "Viaje Iniciado", "El viaje está en progreso"));
+                    notifications.add(toDriver(trip, NotificationType.INFO, "Viaje Iniciado", "El viaje está en progreso"));
+                }
+                case COMPLETE_CONFIRMED ->
+                        tripWebSocketController.sendTripUpdateToBoth(trip, "Esperando confirmación de finalización");
+                case COMPLETED -> {
+                    tripWebSocketController.sendTripUpdateToBoth(trip, "Viaje Finalizado correctamente");
+                    notifications.add(toClient(trip, NotificationType.OK, "Viaje completado", "El viaje se completó exitosamente"));
+                    notifications.add(toDriver(trip, NotificationType.OK, "Viaje completado", "El viaje se completó exitosamente"));
+                }
+                case CANCELLED -> {
+                    // Sin mensajes: el cliente es quien canceló o el viaje no tenía conductor
+                }
+            }
+            notificationService.createAndSendNotifications(notifications);
+        } catch (Exception e) {
+            logger.error("Error processing trip event {} for trip {}: {}", event.type(), trip.getId(), e.getMessage());
+        }
+    }
+
+    private NotificationRequest toClient(Trip trip, NotificationType type, String title, String body) {
+        User client = trip.getClient();
+        return new NotificationRequest(client.getId(), client.getUsername(), type, title, body, trip.getId());
+    }
+
+    private NotificationRequest toDriver(Trip trip, NotificationType type, String title, String body) {
+        User driver = trip.getDriver().getUser();
+        return new NotificationRequest(driver.getId(), driver.getUsername(), type, title, body, trip.getId());
+    }
+}
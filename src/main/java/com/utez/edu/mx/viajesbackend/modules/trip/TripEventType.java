@@ -0,0 +1,27 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+/**
+ * Cambios de estado de un viaje que se publican como {@link TripEvent}.
+ */
+public enum TripEventType {
+    /** El cliente solicitó un viaje nuevo. */
+    REQUESTED,
+    /** Un conductor aceptó el viaje. */
+    ACCEPTED,
+    /** El conductor rechazó un viaje que ya tenía asignado. */
+    REJECTED,
+    /** El viaje se canceló sin conductor asignado o lo canceló el cliente. */
+    CANCELLED,
+    /** El conductor llegó al punto de recogida. */
+    DRIVER_ARRIVED,
+    /** El conductor llegó al destino. */
+    DROPOFF_ARRIVED,
+    /** Una de las partes confirmó el inicio; falta la otra. */
+    START_CONFIRMED,
+    /** Ambas partes confirmaron y el viaje está en progreso. */
+    STARTED,
+    /** Una de las partes confirmó la finalización; falta la otra. */
+    COMPLETE_CONFIRMED,
+    /** Ambas partes confirmaron y el viaje se completó. */
+    COMPLETED
+}
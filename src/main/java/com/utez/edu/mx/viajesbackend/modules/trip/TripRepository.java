@@ -1,9 +1,15 @@
 package com.utez.edu.mx.viajesbackend.modules.trip;
 
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfile;
+import com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,27 +18,139 @@ import java.util.List;
  */
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
+    /** Proyección común de {@link com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO} con cliente y conductor en un solo JOIN. */
+    String TRIP_DTO_SELECT =
+            "SELECT new com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO(" +
+            "t.id, t.originAddress, t.originLatitude, t.originLongitude, " +
+            "t.destinationAddress, t.destinationLatitude, t.destinationLongitude, t.fare, t.status, " +
+            "c.name, c.surname, c.lastname, c.phoneNumber, " +
+            "du.name, du.surname, du.lastname, d.licenseNumber, t.rating, t.createdAt) " +
+            "FROM Trip t JOIN t.client c LEFT JOIN t.driver d LEFT JOIN d.user du ";
+
+    /** Orden del historial; coincide con los índices compuestos de {@link Trip}. */
+    String HISTORY_ORDER = " ORDER BY t.createdAt DESC, t.id DESC";
+
+    /** Condición de keyset: viajes estrictamente anteriores al cursor. */
+    String BEFORE_CURSOR =
+            " AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id))";
+
     /**
-     * Devuelve todos los viajes solicitados por un cliente concreto.
+     * Primera página del historial de un cliente, del más reciente al más antiguo.
      *
-     * @param clientId identificador del usuario que solicitó el viaje
-     * @return lista de viajes del cliente
+     * @param clientId identificador del usuario que solicitó los viajes
+     * @param limit    tamaño de la página
      */
-    List<Trip> findByClientId(Long clientId);
+    @Query(TRIP_DTO_SELECT + "WHERE c.id = :clientId" + HISTORY_ORDER)
+    List<TripDTO> findClientHistory(@Param("clientId") Long clientId, Limit limit);
 
     /**
-     * Devuelve todos los viajes que ha atendido un determinado conductor.
+     * Página del historial de un cliente posterior al cursor {@code (createdAt, id)}.
+     */
+    @Query(TRIP_DTO_SELECT + "WHERE c.id = :clientId" + BEFORE_CURSOR + HISTORY_ORDER)
+    List<TripDTO> findClientHistoryBefore(@Param("clientId") Long clientId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+
+    /**
+     * Primera página del historial de un conductor, del más reciente al más antiguo.
      *
      * @param driverId identificador del perfil de conductor
-     * @return lista de viajes atendidos por el conductor
+     * @param limit    tamaño de la página
+     */
+    @Query(TRIP_DTO_SELECT + "WHERE d.id = :driverId" + HISTORY_ORDER)
+    List<TripDTO> findDriverHistory(@Param("driverId") Long driverId, Limit limit);
+
+    /**
+     * Página del historial de un conductor posterior al cursor {@code (createdAt, id)}.
+     */
+    @Query(TRIP_DTO_SELECT + "WHERE d.id = :driverId" + BEFORE_CURSOR + HISTORY_ORDER)
+    List<TripDTO> findDriverHistoryBefore(@Param("driverId") Long driverId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Limit limit);
+
+
+    /**
+     * Viajes de un conductor cuyo estado no está entre los indicados.
+     *
+     * @param driverId identificador del perfil de conductor
+     * @param excluded estados a excluir (por ejemplo, cancelados y completados)
+     * @return viajes activos del conductor
+     */
+    @Query(TRIP_DTO_SELECT + "WHERE d.id = :driverId AND t.status NOT IN :excluded")
+    List<TripDTO> findDtosByDriverIdAndStatusNotIn(@Param("driverId") Long driverId,
+                                                  @Param("excluded") Collection<TripStatus> excluded);
+
+    /**
+     * Devuelve los viajes que se encuentran en un estado concreto.
+     *
+     * @param status estado buscado
+     * @return lista de viajes en ese estado
+     */
+    List<Trip> findByStatus(TripStatus status);
+
+    /**
+     * Asigna un conductor al viaje sólo si sigue en el estado esperado y sin
+     * conductor. Se ejecuta como una sola sentencia condicional, por lo que
+     * ante aceptaciones simultáneas sólo una afecta la fila.
+     *
+     * @return 1 si el viaje fue asignado, 0 si ya no estaba disponible
+     */
+    @Modifying
+    @Query("UPDATE Trip t SET t.driver = :driver, t.status = :newStatus, t.updatedAt = :now " +
+           "WHERE t.id = :tripId AND t.status = :expectedStatus AND t.driver IS NULL")
+    int assignDriverIfRequested(@Param("tripId") Long tripId,
+                                @Param("driver") DriverProfile driver,
+                                @Param("expectedStatus") TripStatus expectedStatus,
+                                @Param("newStatus") TripStatus newStatus,
+                                @Param("now") LocalDateTime now);
+
+    /**
+     * Marca la confirmación de finalización del conductor sólo si el viaje sigue
+     * en el estado esperado. Al ser una sentencia sobre la fila, dos
+     * confirmaciones simultáneas no se pisan entre sí.
+     *
+     * @return 1 si se marcó, 0 si el viaje ya no estaba en ese estado
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Trip t SET t.driverCompleted = true, t.updatedAt = :now " +
+           "WHERE t.id = :tripId AND t.status = :expectedStatus")
+    int markDriverCompleted(@Param("tripId") Long tripId,
+                            @Param("expectedStatus") TripStatus expectedStatus,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Igual que {@link #markDriverCompleted} para la confirmación del cliente.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Trip t SET t.clientCompleted = true, t.updatedAt = :now " +
+           "WHERE t.id = :tripId AND t.status = :expectedStatus")
+    int markClientCompleted(@Param("tripId") Long tripId,
+                            @Param("expectedStatus") TripStatus expectedStatus,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Completa el viaje sólo si sigue en el estado esperado y ambas partes ya
+     * confirmaron. Ante solicitudes simultáneas sólo una afecta la fila, y es
+     * la única que debe registrar ganancias y liberar al conductor.
+     *
+     * @return 1 si el viaje se completó, 0 si falta una confirmación o ya no estaba en curso
      */
-    List<Trip> findByDriverId(Long driverId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Trip t SET t.status = :newStatus, t.completedAt = :now, t.updatedAt = :now " +
+           "WHERE t.id = :tripId AND t.status = :expectedStatus " +
+           "AND t.driverCompleted = true AND t.clientCompleted = true")
+    int completeIfConfirmed(@Param("tripId") Long tripId,
+                            @Param("expectedStatus") TripStatus expectedStatus,
+                            @Param("newStatus") TripStatus newStatus,
+                            @Param("now") LocalDateTime now);
 
     // Count trips by status
     long countByStatus(TripStatus status);
 
     // Count trips by multiple statuses
-    long countByStatusIn(List<TripStatus> statuses);
+    long countByStatusIn(Collection<TripStatus> statuses);
 
     // Sum fare for trips with specific status
     @Query("SELECT SUM(t.fare) FROM Trip t WHERE t.status = :status")
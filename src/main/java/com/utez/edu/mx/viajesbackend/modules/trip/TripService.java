@@ -3,16 +3,24 @@ package com.utez.edu.mx.viajesbackend.modules.trip;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverAvailability;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfile;
 import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
-import com.utez.edu.mx.viajesbackend.modules.notification.NotificationService;
-import com.utez.edu.mx.viajesbackend.modules.notification.NotificationType;
+import com.utez.edu.mx.viajesbackend.modules.earnings.EarningsService;
 import com.utez.edu.mx.viajesbackend.modules.trip.DTO.*;
 import com.utez.edu.mx.viajesbackend.modules.user.User;
 import com.utez.edu.mx.viajesbackend.modules.user.UserRepository;
 import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
-import com.utez.edu.mx.viajesbackend.websocket.TripWebSocketController;
+import com.utez.edu.mx.viajesbackend.utils.GeoUtils;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
@@ -24,25 +32,57 @@ import java.util.*;
 @Service
 public class TripService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TripService.class);
+
+    /** Radio por defecto (km) para la búsqueda de viajes cercanos. */
+    private static final double DEFAULT_NEARBY_RADIUS_KM = 5.0;
+
+    /** Tamaño de página por defecto y máximo de los historiales. */
+    private static final int DEFAULT_HISTORY_LIMIT = 20;
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     private final TripRepository tripRepository;
     private final UserRepository userRepository;
     private final DriverProfileRepository driverProfileRepository;
     private final CustomResponseEntity customResponseEntity;
-    private final TripWebSocketController tripWebSocketController;
-    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OpenTripIndex openTripIndex;
+    private final DispatchMatcher dispatchMatcher;
+    private final FareEngine fareEngine;
+    private final EarningsService earningsService;
 
     public TripService(TripRepository tripRepository,
                        UserRepository userRepository,
                        DriverProfileRepository driverProfileRepository,
                        CustomResponseEntity customResponseEntity,
-                       TripWebSocketController tripWebSocketController,
-                       NotificationService notificationService) {
+                       ApplicationEventPublisher eventPublisher,
+                       OpenTripIndex openTripIndex,
+                       DispatchMatcher dispatchMatcher,
+                       FareEngine fareEngine,
+                       EarningsService earningsService) {
         this.tripRepository = tripRepository;
         this.userRepository = userRepository;
         this.driverProfileRepository = driverProfileRepository;
         this.customResponseEntity = customResponseEntity;
-        this.tripWebSocketController = tripWebSocketController;
-        this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.openTripIndex = openTripIndex;
+        this.dispatchMatcher = dispatchMatcher;
+        this.fareEngine = fareEngine;
+        this.earningsService = earningsService;
+    }
+
+    /**
+     * Reconstruye el índice de viajes abiertos a partir de la base de datos
+     * una vez que la aplicación ha arrancado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmOpenTripIndex() {
+        List<Trip> open = tripRepository.findByStatus(TripStatus.REQUESTED);
+        for (Trip t : open) {
+            openTripIndex.add(convertToDTO(t));
+        }
+        logger.info("Open trip index warmed with {} trips", openTripIndex.size());
     }
 
     @Transactional(rollbackOn = {SQLException.class, Exception.class})
@@ -51,8 +91,12 @@ public class TripService {
         if (client.isEmpty()) {
             return customResponseEntity.get404Response();
         }
-        // Pass coordinates to fare calculation if needed, or just address
-        double fare = calculateFare(dto.getOriginAddress(), dto.getDestinationAddress());
+        if (!GeoUtils.isValidCoordinate(dto.getOriginLatitude(), dto.getOriginLongitude())
+                || !GeoUtils.isValidCoordinate(dto.getDestinationLatitude(), dto.getDestinationLongitude())) {
+            return customResponseEntity.get400Response("Coordenadas inválidas");
+        }
+        double fare = fareEngine.calculate(dto.getOriginLatitude(), dto.getOriginLongitude(),
+                dto.getDestinationLatitude(), dto.getDestinationLongitude());
 
         Trip trip = new Trip();
         trip.setClient(client.orElse(null));
@@ -70,18 +114,11 @@ public class TripService {
         trip.setCreatedAt(now);
         trip.setUpdatedAt(now);
         Trip savedTrip = tripRepository.save(trip);
+        TripDTO savedDto = convertToDTO(savedTrip);
+        afterCommit(() -> openTripIndex.add(savedDto));
+        publish(savedTrip, TripEventType.REQUESTED, null);
 
-        tripWebSocketController.broadcastNewTripToDrivers(savedTrip);
-        
-        notificationService.createAndSendNotification(
-                client.get().getId(),
-                NotificationType.OK,
-                "Viaje Solicitado",
-                "Tu viaje ha sido solicitado exitosamente.",
-                savedTrip.getId()
-        );
-
-        return customResponseEntity.getOkResponse("Viaje solicitado exitosamente", "ok", 200, convertToDTO(savedTrip));
+        return customResponseEntity.getOkResponse("Viaje solicitado exitosamente", "ok", 200, savedDto);
     }
 
     @Transactional
@@ -106,10 +143,16 @@ public class TripService {
         if (trip.getStatus() == TripStatus.COMPLETED) {
             return customResponseEntity.get400Response("No se puede cancelar un viaje completado");
         }
+        TripStatus prevStatus = trip.getStatus();
         trip.setStatus(TripStatus.CANCELLED);
         trip.setCancelReason(reason);
         trip.setUpdatedAt(LocalDateTime.now());
         tripRepository.save(trip);
+        publish(trip, TripEventType.CANCELLED, prevStatus);
+        afterCommit(() -> {
+            openTripIndex.remove(tripId);
+            dispatchMatcher.forget(tripId);
+        });
         DriverProfile driver = trip.getDriver();
         if (driver != null) {
             driver.setAvailability(DriverAvailability.DISPONIBLE);
@@ -136,49 +179,80 @@ public class TripService {
         return customResponseEntity.getOkResponse("Calificación enviada", "ok", 200, null);
     }
 
+    /**
+     * Historial paginado por cursor de un cliente, del viaje más reciente al más antiguo.
+     */
     @Transactional
-    public ResponseEntity<?> getClientTripHistory(Long clientId) {
-        List<Trip> trips = tripRepository.findByClientId(clientId);
-        List<TripDTO> out = new ArrayList<>();
-        for (Trip t : trips) {
-            out.add(convertToDTO(t));
-        }
-        return customResponseEntity.getOkResponse("Historial de viajes", "ok", 200, out);
+    public ResponseEntity<?> getClientTripHistory(Long clientId, Integer limit, String cursor) {
+        int size = historyLimit(limit);
+        TripCursor after;
+        try {
+            after = cursor != null && !cursor.isBlank() ? TripCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return customResponseEntity.get400Response("Cursor inválido");
+        }
+        // Se pide un elemento extra para saber si hay otra página
+        List<TripDTO> page = after == null
+                ? tripRepository.findClientHistory(clientId, Limit.of(size + 1))
+                : tripRepository.findClientHistoryBefore(clientId, after.createdAt(), after.id(), Limit.of(size + 1));
+        return customResponseEntity.getOkResponse("Historial de viajes", "ok", 200, toHistoryPage(page, size));
     }
 
     @Transactional
     public ResponseEntity<?> getAssignedTrips(Long driverId) {
-        List<Trip> trips = tripRepository.findByDriverId(driverId);
-        List<TripDTO> out = new ArrayList<>();
-        for (Trip t : trips) {
-            if (t.getStatus() != TripStatus.CANCELLED && t.getStatus() != TripStatus.COMPLETED) {
-                out.add(convertToDTO(t));
-            }
-        }
+        List<TripDTO> out = tripRepository.findDtosByDriverIdAndStatusNotIn(driverId,
+                EnumSet.of(TripStatus.CANCELLED, TripStatus.COMPLETED));
         return customResponseEntity.getOkResponse("Viajes asignados", "ok", 200, out);
     }
 
-    @Transactional
-    public ResponseEntity<?> getAvailableTrips() {
-        List<Trip> trips = tripRepository.findAll();
-        List<TripDTO> out = new ArrayList<>();
-        for (Trip t : trips) {
-            if (t.getStatus() == TripStatus.REQUESTED) {
-                out.add(convertToDTO(t));
-            }
+    /**
+     * Devuelve los viajes abiertos desde el índice en memoria. Si se indican
+     * coordenadas, sólo se devuelven los cercanos ordenados por distancia.
+     */
+    public ResponseEntity<?> getAvailableTrips(Double lat, Double lng, Double radiusKm) {
+        if (lat == null && lng == null) {
+            return customResponseEntity.getOkResponse("Viajes disponibles", "ok", 200, openTripIndex.findAll());
+        }
+        if (!GeoUtils.isValidCoordinate(lat, lng)) {
+            return customResponseEntity.get400Response("Coordenadas inválidas");
         }
-        return customResponseEntity.getOkResponse("Viajes disponibles", "ok", 200, out);
+        double radius = radiusKm != null ? radiusKm : DEFAULT_NEARBY_RADIUS_KM;
+        if (radius <= 0 || radius > OpenTripIndex.MAX_RADIUS_KM) {
+            return customResponseEntity.get400Response("El radio debe estar entre 0 y " + (int) OpenTripIndex.MAX_RADIUS_KM + " km");
+        }
+        return customResponseEntity.getOkResponse("Viajes disponibles", "ok", 200, openTripIndex.findNearby(lat, lng, radius));
     }
 
+    /**
+     * Cotiza un viaje sin tocar la base de datos, para mostrar el precio antes
+     * de solicitarlo.
+     */
+    public ResponseEntity<?> quoteTrip(Double originLat, Double originLng, Double destLat, Double destLng) {
+        if (!GeoUtils.isValidCoordinate(originLat, originLng) || !GeoUtils.isValidCoordinate(destLat, destLng)) {
+            return customResponseEntity.get400Response("Coordenadas inválidas");
+        }
+        double distanceKm = fareEngine.roadDistanceKm(originLat, originLng, destLat, destLng);
+        // Una sola lectura de la tarifa: el banderazo mostrado y el total no pueden venir de versiones distintas
+        double baseFare = fareEngine.getBaseFare();
+        FareQuoteDTO quote = new FareQuoteDTO(
+                Math.round(distanceKm * 100.0) / 100.0,
+                baseFare,
+                fareEngine.getPerKm(),
+                fareEngine.fareForDistance(distanceKm, baseFare));
+        return customResponseEntity.getOkResponse("Cotización del viaje", "ok", 200, quote);
+    }
+
+    /**
+     * Asigna el viaje al conductor de forma atómica.
+     *
+     * <p>La asignación es un único {@code UPDATE} condicionado a que el viaje siga
+     * en {@link TripStatus#REQUESTED} sin conductor, de modo que si varios
+     * conductores aceptan a la vez sólo uno gana y el resto recibe de inmediato
+     * un 409. Las notificaciones se envían de forma asíncrona después del commit
+     * para no mantener bloqueada la fila mientras tanto.</p>
+     */
     @Transactional(rollbackOn = {SQLException.class, Exception.class})
     public ResponseEntity<?> acceptTrip(Long tripId, Long driverId, Long userId) {
-        Optional<Trip> maybe = tripRepository.findById(tripId);
-        if (maybe.isEmpty()) return customResponseEntity.get404Response();
-        Trip trip = maybe.get();
-        if (trip.getStatus() != TripStatus.REQUESTED || trip.getDriver() != null) {
-            return customResponseEntity.get400Response("Viaje no disponibles");
-        }
-
         DriverProfile driver = null;
         if (driverId != null) {
             driver = driverProfileRepository.findById(driverId).orElse(null);
@@ -202,16 +276,30 @@ public class TripService {
         if (driver.getAvailability() != DriverAvailability.DISPONIBLE) {
             return customResponseEntity.get400Response("Conductor No disponible");
         }
+        if (dispatchMatcher.isOfferedToAnother(tripId, driver.getId())) {
+            return customResponseEntity.get400Response("Viaje ofrecido a otro conductor");
+        }
 
-        trip.setDriver(driver);
-        trip.setStatus(TripStatus.ACCEPTED);
-        trip.setUpdatedAt(LocalDateTime.now());
-        Trip savedTrip = tripRepository.save(trip);
-        driver.setAvailability(DriverAvailability.EN_VIAJE);
-        driverProfileRepository.save(driver);
+        int claimed = tripRepository.assignDriverIfRequested(tripId, driver, TripStatus.REQUESTED,
+                TripStatus.ACCEPTED, LocalDateTime.now());
+        if (claimed == 0) {
+            if (!tripRepository.existsById(tripId)) return customResponseEntity.get404Response();
+            return customResponseEntity.get409Response("El viaje ya fue tomado por otro conductor");
+        }
+        int driverClaimed = driverProfileRepository.updateAvailabilityIfCurrent(driver.getId(),
+                DriverAvailability.DISPONIBLE, DriverAvailability.EN_VIAJE);
+        if (driverClaimed == 0) {
+            // El conductor tomó otro viaje en paralelo: se deshace la asignación
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return customResponseEntity.get400Response("Conductor No disponible");
+        }
 
-        tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), savedTrip, "Trip accepted");
-        notificationService.createAndSendNotification(trip.getClient().getId(), NotificationType.OK, "Viaje aceptado", "Conductor asignado a tu viaje", savedTrip.getId());
+        Trip savedTrip = tripRepository.findById(tripId).orElseThrow();
+        afterCommit(() -> {
+            openTripIndex.remove(tripId);
+            dispatchMatcher.forget(tripId);
+        });
+        publish(savedTrip, TripEventType.ACCEPTED, TripStatus.REQUESTED);
 
         return customResponseEntity.getOkResponse("Viaje Aceptado", "ok", 200, null);
     }
@@ -223,23 +311,33 @@ public class TripService {
         Trip trip = maybe.get();
         
         if (trip.getStatus() == TripStatus.REQUESTED && trip.getDriver() == null) {
+             // Rechazar una oferta del emparejador no cancela el viaje
+             if (driverId != null && dispatchMatcher.isOfferedTo(tripId, driverId)) {
+                 dispatchMatcher.decline(tripId, driverId);
+                 return customResponseEntity.getOkResponse("Oferta rechazada", "ok", 200, null);
+             }
              trip.setStatus(TripStatus.CANCELLED);
              trip.setUpdatedAt(LocalDateTime.now());
              tripRepository.save(trip);
+             afterCommit(() -> {
+                 openTripIndex.remove(tripId);
+                 dispatchMatcher.forget(tripId);
+             });
+             publish(trip, TripEventType.CANCELLED, TripStatus.REQUESTED);
              return customResponseEntity.getOkResponse("Viaje Cancelado", "ok", 200, null);
         }
 
         if (trip.getDriver() == null || !Objects.equals(trip.getDriver().getId(), driverId)) {
             return customResponseEntity.get400Response("No Autorizado");
         }
+        TripStatus prevStatus = trip.getStatus();
         trip.setStatus(TripStatus.CANCELLED);
         trip.setUpdatedAt(LocalDateTime.now());
         Trip savedTrip = tripRepository.save(trip);
         trip.getDriver().setAvailability(DriverAvailability.DISPONIBLE);
         driverProfileRepository.save(trip.getDriver());
 
-        tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), savedTrip, "Viaje rechazado");
-        notificationService.createAndSendNotification(trip.getClient().getId(), NotificationType.WARN, "Viaje cancelado", "El conductor canceló el viaje", savedTrip.getId());
+        publish(savedTrip, TripEventType.REJECTED, prevStatus);
 
         return customResponseEntity.getOkResponse("Viaje Rechazado", "ok", 200, null);
     }
@@ -260,16 +358,8 @@ public class TripService {
              return customResponseEntity.get400Response("No Autorizado");
         }
         
-        // Send notification/WS update with a specific message or custom field
-        // We reuse TripUpdateMessage but the 'message' field will carry the event
-        tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "DRIVER_ARRIVED");
-        notificationService.createAndSendNotification(
-                trip.getClient().getId(),
-                NotificationType.INFO,
-                "Tu Conductor ha llegado",
-                "Tu conductor ha llegado al punto de partida.",
-                trip.getId()
-        );
+        // The WS update reuses TripUpdateMessage; the 'message' field carries the event
+        publish(trip, TripEventType.DRIVER_ARRIVED, trip.getStatus());
         
         return customResponseEntity.getOkResponse("Llegada notificada al cliente", "ok", 200, null);
     }
@@ -290,18 +380,8 @@ public class TripService {
             return customResponseEntity.get400Response("No Autorizado");
         }
 
-        // Send notification/WS update
-        tripWebSocketController.sendTripUpdateToClient(trip.getClient().getUsername(), trip, "DROPOFF_ARRIVED");
-        // Also send to driver so their UI can update if needed (optional but good for consistency)
-        tripWebSocketController.sendTripUpdateToDriver(trip.getDriver().getUser().getUsername(), trip, "DROPOFF_ARRIVED");
-
-        notificationService.createAndSendNotification(
-                trip.getClient().getId(),
-                NotificationType.INFO,
-                "Llegaste a tu destino",
-                "El conductor ha llegado al destino.",
-                trip.getId()
-        );
+        // Sent to both parties so the driver's UI can update too
+        publish(trip, TripEventType.DROPOFF_ARRIVED, trip.getStatus());
 
         return customResponseEntity.getOkResponse("Llegada al destino notificada", "ok", 200, null);
     }
@@ -344,18 +424,17 @@ public class TripService {
 
     private ResponseEntity<?> checkAndStartTrip(Trip trip) {
         boolean bothStarted = trip.isDriverStarted() && trip.isClientStarted();
+        TripStatus prevStatus = trip.getStatus();
         
         if (bothStarted) {
             trip.setStatus(TripStatus.IN_PROGRESS);
             trip.setUpdatedAt(LocalDateTime.now());
             
             // Notify both
-            tripWebSocketController.sendTripUpdateToBoth(trip, "Viaje iniciado correctamente");
-            notificationService.createAndSendNotification(trip.getClient().getId(), NotificationType.INFO, "Viaje Iniciado", "El viaje está en progreso", trip.getId());
-            notificationService.createAndSendNotification(trip.getDriver().getUser().getId(), NotificationType.INFO, "Viaje Iniciado", "El viaje está en progreso", trip.getId());
+            publish(trip, TripEventType.STARTED, prevStatus);
         } else {
             // Notify the other party that one has confirmed
-            tripWebSocketController.sendTripUpdateToBoth(trip, "Esperando confirmación de inicio");
+            publish(trip, TripEventType.START_CONFIRMED, prevStatus);
         }
         
         tripRepository.save(trip);
@@ -391,8 +470,7 @@ public class TripService {
             return customResponseEntity.get400Response("No Autorizado");
         }
 
-        trip.setDriverCompleted(true);
-        return checkAndCompleteTrip(trip);
+        return confirmCompletion(trip, true);
     }
 
     @Transactional(rollbackOn = {SQLException.class, Exception.class})
@@ -405,53 +483,123 @@ public class TripService {
             return customResponseEntity.get400Response("No Autorizado");
         }
 
-        trip.setClientCompleted(true);
-        return checkAndCompleteTrip(trip);
+        return confirmCompletion(trip, false);
     }
 
-    private ResponseEntity<?> checkAndCompleteTrip(Trip trip) {
-        boolean bothCompleted = trip.isDriverCompleted() && trip.isClientCompleted();
+    /**
+     * Registra la confirmación de una de las partes y completa el viaje cuando
+     * ambas confirmaron.
+     *
+     * <p>Tanto la confirmación como el cambio a {@link TripStatus#COMPLETED} son
+     * {@code UPDATE} condicionados a que el viaje siga {@link TripStatus#IN_PROGRESS},
+     * así que un viaje cancelado o sin iniciar no puede completarse y, ante
+     * solicitudes simultáneas (p. ej. un doble toque), sólo la que cambia la fila
+     * registra las ganancias, libera al conductor y publica el evento.</p>
+     */
+    private ResponseEntity<?> confirmCompletion(Trip trip, boolean byDriver) {
+        Long tripId = trip.getId();
+        TripStatus prevStatus = trip.getStatus();
+        if (prevStatus != TripStatus.IN_PROGRESS) {
+            return customResponseEntity.get400Response("El viaje no está en curso");
+        }
 
-        if (bothCompleted) {
-            trip.setStatus(TripStatus.COMPLETED);
-            trip.setUpdatedAt(LocalDateTime.now());
-            
-            // Free driver
-            DriverProfile driver = trip.getDriver();
-            driver.setAvailability(DriverAvailability.DISPONIBLE);
-            driverProfileRepository.save(driver);
+        LocalDateTime now = LocalDateTime.now();
+        int marked = byDriver
+                ? tripRepository.markDriverCompleted(tripId, TripStatus.IN_PROGRESS, now)
+                : tripRepository.markClientCompleted(tripId, TripStatus.IN_PROGRESS, now);
+        if (marked == 0) {
+            return customResponseEntity.get409Response("El viaje ya no está en curso");
+        }
+        int completed = tripRepository.completeIfConfirmed(tripId, TripStatus.IN_PROGRESS,
+                TripStatus.COMPLETED, now);
+        Trip current = tripRepository.findById(tripId).orElseThrow();
 
-            // Notify both
-            tripWebSocketController.sendTripUpdateToBoth(trip, "Viaje Finalizado correctamente");
-            notificationService.createAndSendNotification(trip.getClient().getId(), NotificationType.OK, "Viaje completado", "El viaje se completó exitosamente", trip.getId());
-            notificationService.createAndSendNotification(trip.getDriver().getUser().getId(), NotificationType.OK, "Viaje completado", "El viaje se completó exitosamente", trip.getId());
-        } else {
-            tripWebSocketController.sendTripUpdateToBoth(trip, "Esperando confirmación de finalización");
+        if (completed == 0) {
+            // Notify the other party that one has confirmed
+            publish(current, TripEventType.COMPLETE_CONFIRMED, prevStatus);
+            return customResponseEntity.getOkResponse("Confirmación recibida. Esperando al otro usuario.", "ok", 200, null);
         }
 
-        tripRepository.save(trip);
-        
-        String msg = bothCompleted ? "Viaje Completado" : "Confirmación recibida. Esperando al otro usuario.";
-        return customResponseEntity.getOkResponse(msg, "ok", 200, null);
+        // Free driver
+        DriverProfile driver = current.getDriver();
+        driver.setAvailability(DriverAvailability.DISPONIBLE);
+        driverProfileRepository.save(driver);
+
+        // Acumula las ganancias en la misma transacción; sólo llega aquí quien completó la fila
+        earningsService.recordCompletedTrip(driver.getId(), current.getFare(), now);
+
+        // Notify both
+        publish(current, TripEventType.COMPLETED, prevStatus);
+        return customResponseEntity.getOkResponse("Viaje Completado", "ok", 200, null);
     }
 
+    /**
+     * Historial paginado por cursor de un conductor, con el ingreso total de sus
+     * viajes completados calculado en SQL.
+     */
     @Transactional
-    public ResponseEntity<?> getDriverTripHistory(Long driverId) {
-        List<Trip> trips = tripRepository.findByDriverId(driverId);
-        List<TripDTO> out = new ArrayList<>();
-        double income = 0;
-        for(Trip t : trips) {
-            out.add(convertToDTO(t));
-            if(t.getStatus() == TripStatus.COMPLETED) income += t.getFare();
-        }
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("trips", out);
-        resp.put("totalIncome", income);
+    public ResponseEntity<?> getDriverTripHistory(Long driverId, Integer limit, String cursor) {
+        int size = historyLimit(limit);
+        TripCursor after;
+        try {
+            after = cursor != null && !cursor.isBlank() ? TripCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return customResponseEntity.get400Response("Cursor inválido");
+        }
+        List<TripDTO> page = after == null
+                ? tripRepository.findDriverHistory(driverId, Limit.of(size + 1))
+                : tripRepository.findDriverHistoryBefore(driverId, after.createdAt(), after.id(), Limit.of(size + 1));
+        Map<String, Object> resp = toHistoryPage(page, size);
+        resp.put("totalIncome", earningsService.getTotalIncome(driverId));
         return customResponseEntity.getOkResponse("Historial", "ok", 200, resp);
     }
 
-    private double calculateFare(String origin, String destination) {
-        return 50.0;
+    private int historyLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_HISTORY_LIMIT;
+        return Math.min(limit, MAX_HISTORY_LIMIT);
+    }
+
+    /**
+     * Arma la respuesta {@code {trips, nextCursor}} a partir de una consulta que
+     * pidió {@code size + 1} filas.
+     */
+    private Map<String, Object> toHistoryPage(List<TripDTO> rows, int size) {
+        String nextCursor = null;
+        List<TripDTO> trips = rows;
+        if (rows.size() > size) {
+            trips = rows.subList(0, size);
+            TripDTO last = trips.get(size - 1);
+            nextCursor = new TripCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("trips", trips);
+        resp.put("nextCursor", nextCursor);
+        return resp;
+    }
+
+    /**
+     * Publica el cambio de estado; {@link TripEventListener} envía los mensajes
+     * y notificaciones sólo si la transacción actual confirma.
+     */
+    private void publish(Trip trip, TripEventType type, TripStatus prevStatus) {
+        eventPublisher.publishEvent(new TripEvent(trip, type, prevStatus));
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual confirme; si no hay
+     * transacción activa se ejecuta de inmediato.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private TripDTO convertToDTO(Trip trip) {
@@ -0,0 +1,31 @@
+package com.utez.edu.mx.viajesbackend.modules.user;
+
+/**
+ * Evento publicado cuando se crea, elimina o cambia de estado un usuario.
+ *
+ * <p>{@code prevStatus} es {@code null} en una alta y {@code status} es
+ * {@code null} en una baja. Los oyentes lo reciben después de confirmar la
+ * transacción que lo publicó.</p>
+ *
+ * @param roleId     rol del usuario, o -1 si no tiene
+ * @param prevStatus estado anterior
+ * @param status     estado nuevo
+ */
+public record UserLifecycleEvent(int roleId, Boolean prevStatus, Boolean status) {
+
+    public static UserLifecycleEvent created(User user) {
+        return new UserLifecycleEvent(roleIdOf(user), null, user.isStatus());
+    }
+
+    public static UserLifecycleEvent deleted(User user) {
+        return new UserLifecycleEvent(roleIdOf(user), user.isStatus(), null);
+    }
+
+    public static UserLifecycleEvent statusChanged(User user, boolean prevStatus) {
+        return new UserLifecycleEvent(roleIdOf(user), prevStatus, user.isStatus());
+    }
+
+    private static int roleIdOf(User user) {
+        return user.getRole() != null ? user.getRole().getId() : -1;
+    }
+}
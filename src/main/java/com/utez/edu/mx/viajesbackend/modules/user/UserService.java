@@ -4,10 +4,12 @@ import com.utez.edu.mx.viajesbackend.modules.user.DTO.PaginatedUsersDTO;
 import com.utez.edu.mx.viajesbackend.modules.user.DTO.UserDTO;
 import com.utez.edu.mx.viajesbackend.modules.notification.NotificationService;
 import com.utez.edu.mx.viajesbackend.modules.notification.NotificationType;
+import com.utez.edu.mx.viajesbackend.security.AuthPrincipalCache;
 import com.utez.edu.mx.viajesbackend.utils.CustomResponseEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -35,6 +37,12 @@ public class UserService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // UserDTO para mostrar solamente ciertos datos en las consultas
     public UserDTO transformUserToDTO(User u) {
         return new UserDTO(
@@ -132,6 +140,7 @@ public class UserService {
             user.setStatus(roleId == 3 ? false : true);
 
             userRepository.save(user);
+            eventPublisher.publishEvent(UserLifecycleEvent.created(user));
             return customResponseEntity.getOkResponse("Usuario guaradado correctamente", "ok", 200, null);
 
         } catch (Exception e) {
@@ -152,6 +161,7 @@ public class UserService {
 
         User found = optionalFound.get();
         String oldUsername = found.getUsername();
+        boolean oldStatus = found.isStatus();
 
         // Permite el mismo email/teléfono del propio usuario, rechaza si es de otro
         if (user.getEmail() != null &&
@@ -186,6 +196,11 @@ public class UserService {
             found.setStatus(user.isStatus());
 
             userRepository.save(found);
+            if (oldStatus != found.isStatus()) {
+                eventPublisher.publishEvent(UserLifecycleEvent.statusChanged(found, oldStatus));
+            }
+            // Los tokens ya verificados deben volver a cargar al usuario
+            authPrincipalCache.evictUserAfterCommit(oldUsername);
 
             // Enviar notificación de actualización de perfil
             try {
@@ -292,6 +307,8 @@ public class UserService {
 
         try {
             userRepository.deleteById(user.getId());
+            authPrincipalCache.evictUserAfterCommit(optionalUser.get().getUsername());
+            eventPublisher.publishEvent(UserLifecycleEvent.deleted(optionalUser.get()));
             return customResponseEntity.getOkResponse("Usuario eliminado correctamente", "ok", 200, null);
         } catch (Exception e) {
             e.printStackTrace();
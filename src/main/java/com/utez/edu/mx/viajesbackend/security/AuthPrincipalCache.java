@@ -0,0 +1,163 @@
+package com.utez.edu.mx.viajesbackend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caché acotada de tokens ya verificados.
+ *
+ * <p>Guarda, por hash SHA-256 del JWT, el {@link UserDetails} resuelto la primera
+ * vez que se presentó el token, hasta su {@code exp} (o {@code auth.cache.max-ttl-ms}
+ * si es menor). Así las peticiones autenticadas siguientes no vuelven a parsear
+ * el token ni consultan la base de datos. Cuando cambia el estado o los datos de
+ * un usuario se invalidan sus entradas con {@link #evictUserAfterCommit(String)}.</p>
+ *
+ * <p>{@link #load} agrupa las cargas concurrentes del mismo usuario: si muchas
+ * conexiones llegan a la vez (p. ej. reconexiones masivas de WebSocket) sólo una
+ * consulta la base de datos y las demás esperan su resultado.</p>
+ */
+@Component
+public class AuthPrincipalCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<UserDetails>> inFlight = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlMillis;
+
+    public AuthPrincipalCache(@Value("${auth.cache.max-entries:10000}") int maxEntries,
+                              @Value("${auth.cache.max-ttl-ms:600000}") long maxTtlMillis) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+    }
+
+    /**
+     * Principal verificado para el token, o {@code null} si no está en caché o expiró.
+     */
+    public UserDetails get(String tokenHash) {
+        Entry entry = entries.get(tokenHash);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(tokenHash, entry);
+            return null;
+        }
+        return entry.userDetails;
+    }
+
+    /**
+     * Guarda el principal verificado hasta la expiración del token.
+     */
+    public void put(String tokenHash, UserDetails userDetails, long tokenExpiresAtMillis) {
+        put(tokenHash, userDetails, tokenExpiresAtMillis, maxTtlMillis);
+    }
+
+    /**
+     * Guarda el principal verificado a lo sumo {@code ttlMillis}.
+     */
+    public void put(String tokenHash, UserDetails userDetails, long tokenExpiresAtMillis, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(tokenExpiresAtMillis, now + Math.min(ttlMillis, maxTtlMillis));
+        if (expiresAt <= now) return;
+        if (entries.size() >= maxEntries) {
+            evictExpired(now);
+            if (entries.size() >= maxEntries) {
+                evictSome(maxEntries / 10 + 1);
+            }
+        }
+        entries.put(tokenHash, new Entry(userDetails, expiresAt));
+    }
+
+    /**
+     * Invalida las entradas del usuario cuando la transacción actual confirme
+     * (o de inmediato si no hay transacción).
+     */
+    public void evictUserAfterCommit(String username) {
+        if (username == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictUser(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictUser(username);
+            }
+        });
+    }
+
+    /**
+     * Carga al usuario con {@code loader}; las llamadas concurrentes para el mismo
+     * usuario comparten una sola carga.
+     */
+    public UserDetails load(String username, Function<String, UserDetails> loader) {
+        CompletableFuture<UserDetails> mine = new CompletableFuture<>();
+        CompletableFuture<UserDetails> existing = inFlight.putIfAbsent(username, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            UserDetails loaded = loader.apply(username);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(username, mine);
+        }
+    }
+
+    /** Invalida todas las entradas de un usuario. */
+    public void evictUser(String username) {
+        entries.values().removeIf(e -> Objects.equals(e.userDetails.getUsername(), username));
+    }
+
+    /**
+     * Hash hexadecimal SHA-256 del token; se usa como llave para no retener los JWT.
+     */
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(e -> e.expiresAtMillis <= now);
+    }
+
+    private void evictSome(int count) {
+        Iterator<String> it = entries.keySet().iterator();
+        for (int i = 0; i < count && it.hasNext(); i++) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(UserDetails userDetails, long expiresAtMillis) {
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,10 +24,13 @@ public class JWTRequestFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JWTRequestFilter.class);
     private final CustomUserDetailsService userDetailsService;
     private final JWTUtil jwtUtil;
+    private final AuthPrincipalCache authPrincipalCache;
 
-    public JWTRequestFilter(CustomUserDetailsService userDetailsService, JWTUtil jwtUtil) {
+    public JWTRequestFilter(CustomUserDetailsService userDetailsService, JWTUtil jwtUtil,
+                            AuthPrincipalCache authPrincipalCache) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.authPrincipalCache = authPrincipalCache;
     }
 
     @Override
@@ -39,12 +43,22 @@ public class JWTRequestFilter extends OncePerRequestFilter {
     }
 
     final String authHeader = request.getHeader("Authorization");
-    String username = null, jwt = null;
+    if (authHeader == null || !authHeader.startsWith("Bearer ")
+            || SecurityContextHolder.getContext().getAuthentication() != null) {
+        chain.doFilter(request, response);
+        return;
+    }
+
+    String jwt = authHeader.substring(7);
+    String tokenHash = AuthPrincipalCache.hash(jwt);
 
-    if (authHeader != null && authHeader.startsWith("Bearer ")) {
-        jwt = authHeader.substring(7);
+    // Token ya verificado: sin parseo ni consulta a la base de datos
+    UserDetails userDetails = authPrincipalCache.get(tokenHash);
+
+    if (userDetails == null) {
+        Claims claims = null;
         try {
-            username = jwtUtil.extractUsername(jwt);   
+            claims = jwtUtil.parseClaims(jwt);
         } catch (ExpiredJwtException ex) {
             logger.debug("JWT expired: {}", ex.getMessage());
         } catch (io.jsonwebtoken.security.SignatureException ex) {
@@ -52,21 +66,27 @@ public class JWTRequestFilter extends OncePerRequestFilter {
         } catch (Exception ex) {
             logger.error("JWT error: {} - {}", ex.getClass().getSimpleName(), ex.getMessage());
         }
-    }
 
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        try {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails) && userDetails.isEnabled()) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                logger.warn("Token validation failed or user disabled for user: {}", username);
+        String username = claims != null ? claims.getSubject() : null;
+        if (username != null) {
+            try {
+                UserDetails loaded = userDetailsService.loadUserByUsername(username);
+                if (loaded.isEnabled()) {
+                    authPrincipalCache.put(tokenHash, loaded, claims.getExpiration().getTime());
+                    userDetails = loaded;
+                } else {
+                    logger.warn("Token validation failed or user disabled for user: {}", username);
+                }
+            } catch (Exception ex) {
+                logger.error("Error loading user details for username: {}", username, ex);
             }
-        } catch (Exception ex) {
-            logger.error("Error loading user details for username: {}", username, ex);
         }
     }
+
+    if (userDetails != null) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
     chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
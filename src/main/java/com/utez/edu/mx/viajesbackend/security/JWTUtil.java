@@ -30,16 +30,18 @@ public class JWTUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(keyService.getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-            return resolver.apply(claims);
-        } catch (JwtException e) {
-            throw e;
-        }
+        return resolver.apply(parseClaims(token));
+    }
+
+    /**
+     * Verifica la firma y la expiración del token y devuelve sus claims en un solo parseo.
+     *
+     * @throws JwtException si el token no es válido o expiró
+     */
+    public Claims parseClaims(String token) {
+        return keyService.getParser()
+            .parseClaimsJws(token)
+            .getBody();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -72,7 +74,7 @@ public class JWTUtil {
 
         return Jwts.builder()
         .setClaims(claims)
-        .setHeaderParam("kid", "primary")
+        .setHeaderParam("kid", keyService.getKeyId())
         .setSubject(userDetails.getUsername())
         .setIssuedAt(new Date())
         .setExpiration(new Date(System.currentTimeMillis() + 1000L*60*60*10))
@@ -82,8 +84,8 @@ public class JWTUtil {
 
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !extractClaim(token, Claims::getExpiration).before(new Date());
+            Claims claims = parseClaims(token);
+            return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
         } catch (JwtException ex) {
             return false;
         }
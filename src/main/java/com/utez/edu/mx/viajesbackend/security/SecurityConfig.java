@@ -3,8 +3,10 @@ package com.utez.edu.mx.viajesbackend.security;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -23,9 +25,12 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class SecurityConfig {
 
     private final JWTRequestFilter jwtRequestFilter;
+    private final boolean clusterBusEnabled;
 
-    public SecurityConfig(JWTRequestFilter jwtRequestFilter) {
+    public SecurityConfig(JWTRequestFilter jwtRequestFilter,
+                          @Value("${websocket.broker.mode:simple}") String brokerMode) {
         this.jwtRequestFilter = jwtRequestFilter;
+        this.clusterBusEnabled = "cluster".equalsIgnoreCase(brokerMode);
     }
 
     @Bean
@@ -61,10 +66,18 @@ public class SecurityConfig {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(AbstractHttpConfigurer::disable)
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**", "/ws/**", "/api/drivers/profile/**", "/api/tariff/current").permitAll()
-                .anyRequest().authenticated()
-            )
+            .authorizeHttpRequests(auth -> {
+                auth.requestMatchers("/api/auth/**", "/ws/**", "/api/drivers/profile/**", "/api/tariff/current").permitAll();
+                // Mensajes entre nodos del bus de WebSocket; sólo existen en modo cluster y se validan con el secreto compartido
+                if (clusterBusEnabled) {
+                    auth.requestMatchers("/internal/cluster/messages").permitAll();
+                } else {
+                    auth.requestMatchers("/internal/cluster/messages").denyAll();
+                }
+                // Reconstrucción completa del libro de ganancias
+                auth.requestMatchers(HttpMethod.POST, "/api/earnings/rebuild").hasRole("ADMIN")
+                    .anyRequest().authenticated();
+            })
             .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,59 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Cuerpo estándar e inmutable de las respuestas REST: {@code message},
+ * {@code status}, {@code code} y, opcionalmente, {@code data}.
+ *
+ * <p>Se serializa con {@link Serializer}, que escribe los campos directamente en
+ * orden fijo sin pasar por un {@code Map} ni por introspección de Jackson.</p>
+ */
+@JsonSerialize(using = ApiResponse.Serializer.class)
+public final class ApiResponse {
+
+    private final String message;
+    private final String status;
+    private final int code;
+    private final Object data;
+
+    public ApiResponse(String message, String status, int code, Object data) {
+        this.message = message;
+        this.status = status;
+        this.code = code;
+        this.data = data;
+    }
+
+    public String getMessage() { return message; }
+    public String getStatus() { return status; }
+    public int getCode() { return code; }
+    public Object getData() { return data; }
+
+    /**
+     * Serializador dedicado de {@link ApiResponse}.
+     */
+    public static final class Serializer extends StdSerializer<ApiResponse> {
+
+        public Serializer() {
+            super(ApiResponse.class);
+        }
+
+        @Override
+        public void serialize(ApiResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("message", value.message);
+            gen.writeStringField("status", value.status);
+            gen.writeNumberField("code", value.code);
+            if (value.data != null) {
+                gen.writeFieldName("data");
+                provider.defaultSerializeValue(value.data, gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
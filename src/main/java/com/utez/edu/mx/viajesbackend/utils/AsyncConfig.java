@@ -0,0 +1,35 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la ejecución asíncrona de la aplicación.
+ *
+ * <p>Define los carriles que procesan los efectos secundarios de los viajes
+ * (mensajes WebSocket y notificaciones). Los eventos de un mismo viaje caen
+ * siempre en el mismo carril de un solo hilo, así que el cliente y el
+ * conductor los reciben en el orden en que se confirmaron. Cuando la cola de
+ * un carril se llena el productor espera, lo que frena a los productores sin
+ * perder ni reordenar mensajes.</p>
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${trips.events.lanes:8}")
+    private int lanes;
+
+    @Value("${trips.events.lane-queue-capacity:500}")
+    private int laneQueueCapacity;
+
+    /**
+     * Carriles que procesan los {@code TripEvent} después del commit.
+     *
+     * @return executor ordenado por id de viaje
+     */
+    @Bean(name = "tripEventLanes", destroyMethod = "shutdown")
+    public KeyedLaneExecutor tripEventLanes() {
+        return new KeyedLaneExecutor(lanes, laneQueueCapacity, "trip-events-");
+    }
+}
@@ -1,19 +1,30 @@
 package com.utez.edu.mx.viajesbackend.utils;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Servicio personalizado para crear respuestas HTTP con un formato uniforme.
- * Utiliza un cuerpo de respuesta estándar con los campos "message", "status", "code" y opcionalmente "data".
+ * Utiliza un cuerpo de respuesta estándar ({@link ApiResponse}) con los campos
+ * "message", "status", "code" y opcionalmente "data".
+ *
+ * <p>No guarda estado: cada llamada construye su propio cuerpo inmutable, por lo
+ * que es seguro usarlo desde peticiones concurrentes. Las respuestas constantes
+ * (404) se serializan una sola vez y se reutilizan.</p>
  */
 @Service
 public class CustomResponseEntity {
-    private Map<String, Object> body;
+
+    // Respuesta 404 ya serializada; ResponseEntity es inmutable y puede compartirse
+    private static final ResponseEntity<byte[]> NOT_FOUND_RESPONSE = ResponseEntity
+            .status(HttpStatus.NOT_FOUND)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body("{\"message\":\"Recurso no encontrado\",\"status\":\"NOT_FOUND\",\"code\":404}"
+                    .getBytes(StandardCharsets.UTF_8));
 
     /**
      * Genera una respuesta con estado 200 (OK) para una solicitud exitosa.
@@ -25,15 +36,7 @@ public class CustomResponseEntity {
      * @return Una respuesta HTTP con estado 200 y los datos proporcionados.
      */
     public ResponseEntity<?> getOkResponse(String message, String status, int code, Object data) {
-        body = new HashMap<>();
-        body.put("message", message); // Mensaje descriptivo
-        body.put("status", status);   // Estado de la respuesta
-        body.put("code", code);       // Código de estado HTTP
-        if (data != null) {
-            body.put("data", data);  // Datos opcionales
-        }
-
-        return new ResponseEntity<>(body, HttpStatus.OK); // Retorna ResponseEntity con estado 200
+        return new ResponseEntity<>(new ApiResponse(message, status, code, data), HttpStatus.OK); // Retorna ResponseEntity con estado 200
     }
 
     /**
@@ -43,12 +46,29 @@ public class CustomResponseEntity {
      * @return Una respuesta HTTP con estado 400 y el mensaje de error proporcionado.
      */
     public ResponseEntity<?> get400Response(String message) {
-        body = new HashMap<>();
-        body.put("message", message); // Mensaje descriptivo de error
-        body.put("status", "error");   // Estado de error
-        body.put("code", 400);         // Código de estado HTTP (400 - Bad Request)
+        return new ResponseEntity<>(new ApiResponse(message, "error", 400, null), HttpStatus.BAD_REQUEST); // Retorna ResponseEntity con estado 400
+    }
+
+    /**
+     * Genera una respuesta con estado 403 (FORBIDDEN) cuando el usuario no puede
+     * acceder al recurso solicitado.
+     *
+     * @param message Mensaje descriptivo del error.
+     * @return Una respuesta HTTP con estado 403 y el mensaje proporcionado.
+     */
+    public ResponseEntity<?> get403Response(String message) {
+        return new ResponseEntity<>(new ApiResponse(message, "FORBIDDEN", 403, null), HttpStatus.FORBIDDEN); // Retorna ResponseEntity con estado 403
+    }
 
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST); // Retorna ResponseEntity con estado 400
+    /**
+     * Genera una respuesta con estado 409 (CONFLICT) cuando la operación choca con
+     * el estado actual del recurso (por ejemplo, un viaje que ya fue tomado).
+     *
+     * @param message Mensaje descriptivo del conflicto.
+     * @return Una respuesta HTTP con estado 409 y el mensaje proporcionado.
+     */
+    public ResponseEntity<?> get409Response(String message) {
+        return new ResponseEntity<>(new ApiResponse(message, "CONFLICT", 409, null), HttpStatus.CONFLICT); // Retorna ResponseEntity con estado 409
     }
 
     /**
@@ -57,12 +77,6 @@ public class CustomResponseEntity {
      * @return Una respuesta HTTP con estado 404 y un mensaje por defecto de "Recurso no encontrado".
      */
     public ResponseEntity<?> get404Response() {
-        body = new HashMap<>();
-        body.put("message", "Recurso no encontrado"); // Mensaje por defecto para no encontrado
-        body.put("status", "NOT_FOUND");              // Estado de recurso no encontrado
-        body.put("code", 404);                        // Código de estado HTTP (404)
-
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND); // Retorna ResponseEntity con estado 404
+        return NOT_FOUND_RESPONSE; // Respuesta constante, sin asignaciones
     }
 }
-
@@ -1,20 +1,28 @@
 package com.utez.edu.mx.viajesbackend.utils;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
 /**
  * Clase de configuración para establecer la conexión a la base de datos MySQL.
  * Utiliza valores configurados en el archivo de propiedades (application.properties o application.yml)
- * para crear un bean de tipo DataSource que se utiliza para la conexión a la base de datos.
+ * para crear un pool de conexiones (HikariCP) que se utiliza para la conexión a la base de datos.
  */
 @Configuration
 public class DBConnection {
 
+    // Parámetros de la URL de MySQL: caché de sentencias preparadas y reescritura de lotes
+    private static final String MYSQL_URL_PARAMS =
+            "cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048"
+                    + "&useServerPrepStmts=true&rewriteBatchedStatements=true"
+                    + "&cacheResultSetMetadata=true&cacheServerConfiguration=true"
+                    + "&elideSetAutoCommits=true&maintainTimeStats=false";
+
     // Valores de configuración inyectados desde el archivo de propiedades
     @Value("${db.url}")
     private String DB_URL; // URL de la base de datos
@@ -28,27 +36,54 @@ public class DBConnection {
     @Value("${db.password}")
     private String DB_PASSWORD; // Contraseña para la conexión
 
+    @Value("${db.pool.maximum-size:20}")
+    private int POOL_MAX_SIZE; // Conexiones máximas del pool
+
+    @Value("${db.pool.minimum-idle:5}")
+    private int POOL_MIN_IDLE; // Conexiones inactivas mínimas
+
+    @Value("${db.pool.connection-timeout-ms:3000}")
+    private long POOL_CONNECTION_TIMEOUT; // Espera máxima para obtener una conexión
+
+    @Value("${db.pool.idle-timeout-ms:600000}")
+    private long POOL_IDLE_TIMEOUT; // Tiempo antes de cerrar una conexión inactiva
+
+    @Value("${db.pool.max-lifetime-ms:1800000}")
+    private long POOL_MAX_LIFETIME; // Vida máxima de una conexión (menor que wait_timeout de MySQL)
+
     /**
      * Configura y devuelve un DataSource que será utilizado por Spring para la conexión a la base de datos.
      *
+     * <p>Al ser un {@link HikariDataSource}, Spring Boot Actuator publica sus métricas
+     * ({@code hikaricp.connections.active}, {@code .pending}, {@code .acquire},
+     * {@code .timeout}, ...) bajo el pool {@code viajes-pool}.</p>
+     *
      * @return DataSource configurado para conectarse a la base de datos MySQL.
      */
     @Bean
     public DataSource dataSource() {
-        // Crear una instancia de DriverManagerDataSource
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariConfig config = new HikariConfig();
 
         // Establecer el controlador JDBC para MySQL
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
 
         // Establecer la URL de la base de datos, combinando el URL base con el nombre de la base de datos
-        dataSource.setUrl(DB_URL + "/" + DB_NAME);
+        String url = DB_URL + "/" + DB_NAME;
+        config.setJdbcUrl(url + (url.contains("?") ? "&" : "?") + MYSQL_URL_PARAMS);
 
         // Establecer las credenciales de acceso
-        dataSource.setUsername(DB_USERNAME);
-        dataSource.setPassword(DB_PASSWORD);
+        config.setUsername(DB_USERNAME);
+        config.setPassword(DB_PASSWORD);
+
+        // Dimensionar el pool
+        config.setPoolName("viajes-pool");
+        config.setMaximumPoolSize(POOL_MAX_SIZE);
+        config.setMinimumIdle(POOL_MIN_IDLE);
+        config.setConnectionTimeout(POOL_CONNECTION_TIMEOUT);
+        config.setIdleTimeout(POOL_IDLE_TIMEOUT);
+        config.setMaxLifetime(POOL_MAX_LIFETIME);
 
-        // Devolver el objeto DataSource configurado
-        return dataSource;
+        // Devolver el pool configurado
+        return new HikariDataSource(config);
     }
 }
@@ -0,0 +1,44 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+/**
+ * Utilidades geográficas compartidas por los módulos de viajes y conductores.
+ *
+ * <p>Todas las operaciones trabajan con primitivos para poder usarse en rutas
+ * calientes (consultas de cercanía, emparejamiento, cotizaciones) sin generar
+ * basura en el heap.</p>
+ */
+public final class GeoUtils {
+
+    /** Radio medio de la Tierra en kilómetros. */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Kilómetros que abarca un grado de latitud (aproximado). */
+    public static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Calcula la distancia ortodrómica (haversine) entre dos coordenadas.
+     *
+     * @return distancia en kilómetros
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Indica si el par latitud/longitud es una coordenada válida.
+     */
+    public static boolean isValidCoordinate(Double lat, Double lng) {
+        return lat != null && lng != null
+                && lat >= -90 && lat <= 90
+                && lng >= -180 && lng <= 180;
+    }
+}
@@ -0,0 +1,141 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Codificación geohash (base32) para repartir tópicos STOMP por celda geográfica.
+ *
+ * <p>Con precisión 5 cada celda mide aprox. 4.9 km × 4.9 km (menos de ancho
+ * lejos del ecuador). Un chofer se suscribe a las celdas que cubren el radio de
+ * recogida alrededor de la suya ({@link #cellsCovering}), que para radios
+ * mayores a una celda son más que las 8 vecinas inmediatas.</p>
+ */
+public final class Geohash {
+
+    /** Precisión usada para los tópicos de viajes nuevos. */
+    public static final int TRIP_TOPIC_PRECISION = 5;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    /**
+     * Codifica una coordenada con la precisión indicada (número de caracteres).
+     */
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        char[] out = new char[precision];
+        boolean even = true;
+        int bit = 0, ch = 0, idx = 0;
+        while (idx < precision) {
+            if (even) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) { ch = (ch << 1) | 1; minLng = mid; } else { ch <<= 1; maxLng = mid; }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) { ch = (ch << 1) | 1; minLat = mid; } else { ch <<= 1; maxLat = mid; }
+            }
+            even = !even;
+            if (++bit == 5) {
+                out[idx++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(out);
+    }
+
+    /** Máximo de anillos de celdas por eje, para acotar el resultado cerca de los polos. */
+    private static final int MAX_RINGS = 8;
+
+    /**
+     * Devuelve la celda indicada seguida de sus vecinas (hasta 8, menos cerca de los polos).
+     */
+    public static List<String> cellAndNeighbours(String hash) {
+        return rings(hash, bounds(hash), 1, 1);
+    }
+
+    /**
+     * Devuelve la celda indicada seguida de las celdas necesarias para cubrir
+     * {@code radiusKm} desde cualquier punto dentro de ella.
+     *
+     * <p>El número de anillos se calcula por eje con el tamaño real de la celda
+     * en esa latitud, de modo que un radio mayor que la celda agrega anillos en
+     * lugar de dejar fuera viajes alcanzables.</p>
+     */
+    public static List<String> cellsCovering(String hash, double radiusKm) {
+        double[] box = bounds(hash);
+        double latSize = box[1] - box[0];
+        double lngSize = box[3] - box[2];
+        double farthestLat = Math.min(90, Math.max(Math.abs(box[0]), Math.abs(box[1])) + radiusKm / GeoUtils.KM_PER_DEGREE_LAT);
+        double cos = Math.max(Math.cos(Math.toRadians(farthestLat)), 0.01);
+        double latSpan = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double lngSpan = radiusKm / (GeoUtils.KM_PER_DEGREE_LAT * cos);
+        int latRings = Math.min(MAX_RINGS, Math.max(1, (int) Math.ceil(latSpan / latSize)));
+        int lngRings = Math.min(MAX_RINGS, Math.max(1, (int) Math.ceil(lngSpan / lngSize)));
+        return rings(hash, box, latRings, lngRings);
+    }
+
+    private static List<String> rings(String hash, double[] box, int latRings, int lngRings) {
+        double latSize = box[1] - box[0];
+        double lngSize = box[3] - box[2];
+        double centerLat = (box[0] + box[1]) / 2;
+        double centerLng = (box[2] + box[3]) / 2;
+
+        Set<String> out = new LinkedHashSet<>((2 * latRings + 1) * (2 * lngRings + 1));
+        out.add(hash);
+        for (int dLat = -latRings; dLat <= latRings; dLat++) {
+            double lat = centerLat + dLat * latSize;
+            if (lat < -90 || lat > 90) continue;
+            for (int dLng = -lngRings; dLng <= lngRings; dLng++) {
+                double lng = wrapLng(centerLng + dLng * lngSize);
+                out.add(encode(lat, lng, hash.length()));
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * Límites de la celda: {minLat, maxLat, minLng, maxLng}.
+     */
+    static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                if (even) {
+                    double mid = (minLng + maxLng) / 2;
+                    if ((value & mask) != 0) minLng = mid; else maxLng = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if ((value & mask) != 0) minLat = mid; else maxLat = mid;
+                }
+                even = !even;
+            }
+        }
+        return new double[]{minLat, maxLat, minLng, maxLng};
+    }
+
+    private static double wrapLng(double lng) {
+        if (lng >= 180) return lng - 360;
+        if (lng < -180) return lng + 360;
+        return lng;
+    }
+}
@@ -0,0 +1,91 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor formado por carriles de un solo hilo.
+ *
+ * <p>Cada tarea se asigna a un carril según su llave, por lo que las tareas
+ * con la misma llave se ejecutan una tras otra y en el orden en que se
+ * enviaron, mientras que llaves distintas avanzan en paralelo. Cuando la cola
+ * de un carril se llena, el productor espera a que haya lugar en lugar de
+ * ejecutar la tarea en su propio hilo, lo que rompería el orden.</p>
+ */
+public class KeyedLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyedLaneExecutor.class);
+
+    private final ThreadPoolExecutor[] lanes;
+
+    /**
+     * @param lanes         número de carriles (hilos)
+     * @param queueCapacity tareas pendientes por carril
+     * @param threadPrefix  prefijo del nombre de los hilos
+     */
+    public KeyedLaneExecutor(int lanes, int queueCapacity, String threadPrefix) {
+        this.lanes = new ThreadPoolExecutor[Math.max(1, lanes)];
+        for (int i = 0; i < this.lanes.length; i++) {
+            String name = threadPrefix + (i + 1);
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    KeyedLaneExecutor::waitForRoom);
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en el carril que corresponde a la llave.
+     *
+     * @param key  llave de orden (p. ej. id del viaje)
+     * @param task tarea a ejecutar
+     */
+    public void execute(Object key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    int laneOf(Object key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    /**
+     * Detiene los carriles esperando a que terminen las tareas pendientes.
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warn("Lane did not finish its pending tasks before shutdown");
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Lane is shut down");
+        }
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for lane capacity", e);
+        }
+    }
+}
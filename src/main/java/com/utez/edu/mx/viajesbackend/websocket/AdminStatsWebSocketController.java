@@ -0,0 +1,49 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WebSocket controller that pushes dashboard statistics changes to administrators.
+ *
+ * <p>Subscriptions to {@link #STATS_TOPIC} are restricted to admins by
+ * {@link AdminTopicChannelInterceptor}.</p>
+ */
+@Controller
+public class AdminStatsWebSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminStatsWebSocketController.class);
+
+    /** Topic where stats deltas are published. */
+    public static final String STATS_TOPIC = "/topic/admin/stats";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public AdminStatsWebSocketController(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Broadcast the fields that changed in the dashboard stats.
+     *
+     * @param version version of the snapshot after applying the changes
+     * @param changes changed fields mapped to their delta
+     */
+    public void sendStatsDelta(long version, Map<String, Object> changes) {
+        if (changes.isEmpty()) return;
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", "STATS_DELTA");
+            payload.put("version", version);
+            payload.put("changes", changes);
+            messagingTemplate.convertAndSend(STATS_TOPIC, payload);
+        } catch (Exception e) {
+            logger.error("Error broadcasting dashboard stats delta: {}", e.getMessage());
+        }
+    }
+}
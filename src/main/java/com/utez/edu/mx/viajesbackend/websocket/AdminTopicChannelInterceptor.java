@@ -0,0 +1,45 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Inbound channel interceptor that only lets administrators subscribe to
+ * {@code /topic/admin/**} destinations.
+ */
+@Component
+public class AdminTopicChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminTopicChannelInterceptor.class);
+
+    private static final String ADMIN_PREFIX = "/topic/admin/";
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(ADMIN_PREFIX)) {
+            return message;
+        }
+        Principal user = accessor.getUser();
+        if (user instanceof StompPrincipal principal && principal.hasRole(ADMIN_ROLE)) {
+            return message;
+        }
+        logger.warn("Rejected subscription to {} for user {}", destination, user != null ? user.getName() : null);
+        throw new MessageDeliveryException("Access denied to " + destination);
+    }
+}
@@ -0,0 +1,82 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives messages forwarded by peer nodes in {@code websocket.broker.mode=cluster}
+ * and delivers them to the sessions connected to this node.
+ */
+@RestController
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "cluster")
+public class ClusterBusController {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final byte[] secret;
+
+    public ClusterBusController(SimpMessagingTemplate messagingTemplate, ClusterBusInterceptor clusterBusInterceptor) {
+        this.messagingTemplate = messagingTemplate;
+        this.secret = clusterBusInterceptor.getSecret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping(ClusterBusInterceptor.FORWARD_PATH)
+    public ResponseEntity<Void> receive(@RequestHeader(value = ClusterBusInterceptor.SECRET_HEADER, required = false) String secretHeader,
+                                        @RequestBody Map<String, Object> frame) {
+        if (secretHeader == null
+                || !MessageDigest.isEqual(secret, secretHeader.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Message<byte[]> message = toMessage(frame);
+        if (message == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        ClusterBusInterceptor.runFromPeer(() -> messagingTemplate.send(destination, message));
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Rebuild the broker message encoded by {@link ClusterBusInterceptor}.
+     *
+     * @return the message, or {@code null} if the frame has no destination or payload
+     */
+    static Message<byte[]> toMessage(Map<String, Object> frame) {
+        if (!(frame.get("destination") instanceof String destination)
+                || !(frame.get("payload") instanceof String payload)) {
+            return null;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        if (frame.get("contentType") instanceof String contentType) {
+            accessor.setContentType(MimeType.valueOf(contentType));
+        }
+        if (frame.get("headers") instanceof Map<?, ?> headers) {
+            headers.forEach((name, values) -> {
+                if (values instanceof List<?> list) {
+                    for (Object value : list) {
+                        accessor.addNativeHeader(String.valueOf(name), String.valueOf(value));
+                    }
+                }
+            });
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(Base64.getDecoder().decode(payload), accessor.getMessageHeaders());
+    }
+}
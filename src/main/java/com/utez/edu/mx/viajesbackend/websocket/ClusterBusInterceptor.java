@@ -0,0 +1,167 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Broker channel interceptor for {@code websocket.broker.mode=cluster}.
+ *
+ * <p>Every message the application sends to {@code /topic/**} or
+ * {@code /user/**} is delivered by the local simple broker as usual and also
+ * POSTed to each node in {@code websocket.cluster.peers}, where
+ * {@link ClusterBusController} re-injects it into that node's broker channel.
+ * User destinations are therefore resolved on whichever node holds the
+ * user's session. Native headers such as the replay sequence travel with the
+ * message; frames addressed to a single session stay on this node.</p>
+ *
+ * <p>This is a stand-in for a real broker so several instances can be run on
+ * one machine; production deployments should use {@code relay} mode.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "cluster")
+public class ClusterBusInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBusInterceptor.class);
+
+    /** Header carrying the shared secret between nodes. */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    /** Path of the peer endpoint that receives forwarded messages. */
+    public static final String FORWARD_PATH = "/internal/cluster/messages";
+
+    /** Placeholder secret that must never be used to run a cluster. */
+    static final String PLACEHOLDER_SECRET = "change-me";
+
+    /** Set while re-injecting a message received from a peer, so it is not forwarded again. */
+    private static final ThreadLocal<Boolean> FROM_PEER = new ThreadLocal<>();
+
+    private final List<URI> peers = new ArrayList<>();
+    private final String secret;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public ClusterBusInterceptor(@Value("${websocket.cluster.peers:}") String peers,
+                                 @Value("${websocket.cluster.secret:}") String secret,
+                                 ObjectMapper objectMapper) {
+        if (secret == null || secret.isBlank() || PLACEHOLDER_SECRET.equals(secret.trim())) {
+            throw new IllegalStateException(
+                    "websocket.cluster.secret must be set to a non-default value when websocket.broker.mode=cluster");
+        }
+        for (String peer : peers.split(",")) {
+            if (!peer.isBlank()) {
+                this.peers.add(URI.create(peer.trim().replaceAll("/+$", "") + FORWARD_PATH));
+            }
+        }
+        this.secret = secret;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        logger.info("WebSocket cluster bus enabled with {} peers", this.peers.size());
+    }
+
+    /**
+     * Run the action marking the current thread as handling a peer message.
+     */
+    public static void runFromPeer(Runnable action) {
+        FROM_PEER.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            FROM_PEER.remove();
+        }
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (peers.isEmpty() || FROM_PEER.get() != null || !shouldForward(message)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        byte[] body;
+        try {
+            body = encode(message);
+        } catch (Exception e) {
+            logger.error("Error encoding cluster message for {}: {}", destination, e.getMessage());
+            return message;
+        }
+        forward(destination, body);
+        return message;
+    }
+
+    /**
+     * Indicates whether a broker message must also reach the peers.
+     *
+     * <p>Only application messages to {@code /topic/**} or {@code /user/**} are
+     * forwarded. Messages addressed to one session (a per-session frame from
+     * {@link UserMessageSender#sendToSession} or a replay) are not: the session
+     * lives on this node, and on a peer the session id would not match and the
+     * frame would reach every session of the user.</p>
+     */
+    static boolean shouldForward(Message<?> message) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        return accessor.getMessageType() == SimpMessageType.MESSAGE
+                && destination != null
+                && (destination.startsWith("/topic/") || destination.startsWith("/user/"))
+                && accessor.getSessionId() == null
+                && message.getPayload() instanceof byte[];
+    }
+
+    /**
+     * JSON body sent to the peers: destination, content type, native headers
+     * (e.g. {@code x-seq} and {@code x-seq-epoch}) and the Base64 payload.
+     */
+    byte[] encode(Message<?> message) throws Exception {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("destination", accessor.getDestination());
+        frame.put("contentType", contentType != null ? contentType.toString() : null);
+        frame.put("headers", accessor.toNativeHeaderMap());
+        frame.put("payload", Base64.getEncoder().encodeToString((byte[]) message.getPayload()));
+        return objectMapper.writeValueAsBytes(frame);
+    }
+
+    private void forward(String destination, byte[] body) {
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer)
+                    .timeout(Duration.ofSeconds(2))
+                    .header("Content-Type", "application/json")
+                    .header(SECRET_HEADER, secret)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            logger.warn("Error forwarding {} to peer {}: {}", destination, peer, error.getMessage());
+                        } else if (response.statusCode() >= 300) {
+                            logger.warn("Peer {} rejected {} with status {}", peer, destination, response.statusCode());
+                        }
+                    });
+        }
+    }
+}
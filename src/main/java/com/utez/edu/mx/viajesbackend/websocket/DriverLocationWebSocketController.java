@@ -0,0 +1,155 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverLocationStore;
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
+import com.utez.edu.mx.viajesbackend.utils.GeoUtils;
+import com.utez.edu.mx.viajesbackend.utils.Geohash;
+import com.utez.edu.mx.viajesbackend.websocket.dto.DriverCellsMessage;
+import com.utez.edu.mx.viajesbackend.websocket.dto.DriverLocationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket controller for live driver location pings.
+ *
+ * <p>Drivers send their position to {@code /app/drivers/location}. Pings only
+ * update the in-memory {@link DriverLocationStore}; the sampled trail is
+ * persisted in batches by the store itself.</p>
+ *
+ * <p>Whenever a driver's geohash-5 cell changes (or on their first ping after
+ * connecting) the new list of new-trip topics is sent to
+ * {@code /user/queue/drivers/cells} so the client can move its subscriptions.
+ * The list covers {@code dispatch.max-pickup-km} around the driver's cell, so
+ * it grows beyond the 8 immediate neighbours when the radius is larger than a
+ * cell.</p>
+ */
+@Controller
+public class DriverLocationWebSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLocationWebSocketController.class);
+
+    /** Marker for usernames that do not belong to a driver profile. */
+    private static final long NOT_A_DRIVER = -1L;
+
+    private final DriverLocationStore driverLocationStore;
+    private final DriverProfileRepository driverProfileRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final double pickupRadiusKm;
+    private final long notADriverTtlMillis;
+    private final Map<String, Long> driverIdsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Long> notADriverUntil = new ConcurrentHashMap<>();
+    private final Map<String, String> cellsByUsername = new ConcurrentHashMap<>();
+
+    public DriverLocationWebSocketController(DriverLocationStore driverLocationStore,
+                                             DriverProfileRepository driverProfileRepository,
+                                             SimpMessagingTemplate messagingTemplate,
+                                             @Value("${dispatch.max-pickup-km:8}") double pickupRadiusKm,
+                                             @Value("${drivers.location.not-a-driver-ttl-ms:60000}") long notADriverTtlMillis) {
+        this.driverLocationStore = driverLocationStore;
+        this.driverProfileRepository = driverProfileRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.pickupRadiusKm = pickupRadiusKm;
+        this.notADriverTtlMillis = notADriverTtlMillis;
+    }
+
+    /**
+     * Handle a location ping from the authenticated driver.
+     *
+     * @param location the reported coordinates
+     * @param principal the authenticated user
+     */
+    @MessageMapping("/drivers/location")
+    public void updateLocation(@Payload DriverLocationMessage location, Principal principal) {
+        if (principal == null || location == null
+                || !GeoUtils.isValidCoordinate(location.getLatitude(), location.getLongitude())) {
+            return;
+        }
+        long driverId = resolveDriverId(principal.getName());
+        if (driverId == NOT_A_DRIVER) {
+            logger.debug("Ignoring location ping from non-driver user: {}", principal.getName());
+            return;
+        }
+        driverLocationStore.update(driverId, principal.getName(), location.getLatitude(), location.getLongitude());
+        updateCell(principal.getName(), location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Forget the driver's cell and id when they disconnect, so the topics are
+     * sent again on the first ping of the next session and the caches only
+     * hold connected users.
+     */
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            cellsByUsername.remove(user.getName());
+            driverIdsByUsername.remove(user.getName());
+            notADriverUntil.remove(user.getName());
+        }
+    }
+
+    private void updateCell(String username, double latitude, double longitude) {
+        String cell = Geohash.encode(latitude, longitude, Geohash.TRIP_TOPIC_PRECISION);
+        String previous = cellsByUsername.put(username, cell);
+        if (Objects.equals(previous, cell)) {
+            return;
+        }
+        List<String> cells = Geohash.cellsCovering(cell, pickupRadiusKm);
+        List<String> topics = new ArrayList<>(cells.size());
+        for (String c : cells) {
+            topics.add(TripWebSocketController.newTripsTopic(c));
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(username, "/queue/drivers/cells", new DriverCellsMessage(cell, topics));
+        } catch (Exception e) {
+            logger.error("Error sending trip cells to driver {}: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolve the driver profile id for a username, hitting the database only
+     * on the first ping of each session.
+     *
+     * <p>The lookup runs outside the map so a slow query does not block other
+     * users' pings. Users without a driver profile are remembered only for
+     * {@code drivers.location.not-a-driver-ttl-ms}, so a profile created later
+     * is picked up without a restart.</p>
+     */
+    private long resolveDriverId(String username) {
+        Long cached = driverIdsByUsername.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long now = System.currentTimeMillis();
+        Long until = notADriverUntil.get(username);
+        if (until != null) {
+            if (until > now) {
+                return NOT_A_DRIVER;
+            }
+            notADriverUntil.remove(username, until);
+        }
+        Long driverId = driverProfileRepository.findByUserUsername(username)
+                .map(dp -> dp.getId())
+                .orElse(null);
+        if (driverId == null) {
+            notADriverUntil.put(username, now + notADriverTtlMillis);
+            return NOT_A_DRIVER;
+        }
+        driverIdsByUsername.put(username, driverId);
+        return driverId;
+    }
+}
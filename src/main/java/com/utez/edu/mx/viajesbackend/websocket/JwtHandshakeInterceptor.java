@@ -1,11 +1,16 @@
 package com.utez.edu.mx.viajesbackend.websocket;
 
+import com.utez.edu.mx.viajesbackend.security.AuthPrincipalCache;
 import com.utez.edu.mx.viajesbackend.security.CustomUserDetailsService;
 import com.utez.edu.mx.viajesbackend.security.JWTUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketHandler;
@@ -13,25 +18,43 @@ import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * WebSocket handshake interceptor that validates JWT tokens.
  *
  * <p>This interceptor extracts the JWT token from the query parameter during
- * the WebSocket handshake and validates it. If valid, the username is stored
- * in the WebSocket session attributes for later use.</p>
+ * the WebSocket handshake and validates it. If valid, the username and the
+ * resolved {@link StompPrincipal} are stored in the WebSocket session
+ * attributes, so {@link UserHandshakeHandler} does not parse the token again.</p>
+ *
+ * <p>Tokens already verified are served from {@link AuthPrincipalCache} for
+ * {@code websocket.handshake.cache-ttl-ms}; on a miss, concurrent handshakes of
+ * the same user share a single user lookup. A reconnect storm therefore costs
+ * one query per user instead of one per connection.</p>
  */
 @Component
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
 
+    /** Session attribute holding the {@link StompPrincipal} resolved during the handshake. */
+    public static final String PRINCIPAL_ATTRIBUTE = "stompPrincipal";
+
     private final JWTUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final long cacheTtlMillis;
 
-    public JwtHandshakeInterceptor(JWTUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtHandshakeInterceptor(JWTUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   AuthPrincipalCache authPrincipalCache,
+                                   @Value("${websocket.handshake.cache-ttl-ms:60000}") long cacheTtlMillis) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.authPrincipalCache = authPrincipalCache;
+        this.cacheTtlMillis = cacheTtlMillis;
     }
 
     @Override
@@ -57,20 +80,33 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
                 return false;
             }
 
-            // Validate token
-            String username = jwtUtil.extractUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(token, userDetails)) {
-                // Store username in session attributes
-                attributes.put("username", username);
-                logger.info("WebSocket handshake successful for user: {}", username);
-                return true;
-            } else {
-                logger.warn("Invalid JWT token for WebSocket connection");
-                return false;
+            String tokenHash = AuthPrincipalCache.hash(token);
+            UserDetails userDetails = authPrincipalCache.get(tokenHash);
+            if (userDetails == null) {
+                // Validate token (signature and expiration) with a single parse
+                Claims claims;
+                try {
+                    claims = jwtUtil.parseClaims(token);
+                } catch (JwtException e) {
+                    logger.warn("Invalid JWT token for WebSocket connection: {}", e.getMessage());
+                    return false;
+                }
+                userDetails = authPrincipalCache.load(claims.getSubject(), userDetailsService::loadUserByUsername);
+                if (userDetails.isEnabled()) {
+                    // Disabled users can still connect, but must not be cached for HTTP requests
+                    authPrincipalCache.put(tokenHash, userDetails, claims.getExpiration().getTime(), cacheTtlMillis);
+                }
             }
 
+            String username = userDetails.getUsername();
+            Set<String> roles = userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toUnmodifiableSet());
+            attributes.put("username", username);
+            attributes.put(PRINCIPAL_ATTRIBUTE, new StompPrincipal(username, roles));
+            logger.debug("WebSocket handshake successful for user: {}", username);
+            return true;
+
         } catch (Exception e) {
             logger.error("Error during WebSocket handshake: {}", e.getMessage());
             return false;
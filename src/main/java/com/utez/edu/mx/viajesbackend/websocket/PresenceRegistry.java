@@ -0,0 +1,128 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the users connected over STOMP to this node.
+ *
+ * <p>Fed by {@link SessionConnectedEvent} and {@link SessionDisconnectEvent}; it
+ * counts sessions per user and connected users per role without locks beyond
+ * the per-key updates of {@link ConcurrentHashMap}. Disconnect events may
+ * arrive more than once per session, so sessions are tracked by id.</p>
+ *
+ * <p>Exposes the gauges {@code websocket.connected.users} (tag {@code role})
+ * and {@code websocket.sessions}.</p>
+ */
+@Component
+public class PresenceRegistry {
+
+    static final String ROLE_DRIVER = "ROLE_CONDUCTOR";
+    static final String ROLE_CLIENT = "ROLE_CLIENTE";
+    static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    private final Map<String, String> usernamesBySession = new ConcurrentHashMap<>();
+    private final Map<String, Presence> presenceByUser = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> usersByRole = new ConcurrentHashMap<>();
+    private final boolean localBroker;
+
+    public PresenceRegistry(MeterRegistry meterRegistry,
+                            @Value("${websocket.broker.mode:simple}") String brokerMode) {
+        this.localBroker = "simple".equalsIgnoreCase(brokerMode);
+        registerGauge(meterRegistry, "driver", ROLE_DRIVER);
+        registerGauge(meterRegistry, "client", ROLE_CLIENT);
+        registerGauge(meterRegistry, "admin", ROLE_ADMIN);
+        Gauge.builder("websocket.sessions", usernamesBySession, Map::size)
+                .description("Open STOMP sessions on this node")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null || usernamesBySession.putIfAbsent(sessionId, user.getName()) != null) {
+            return;
+        }
+        String role = roleOf(user);
+        Presence presence = presenceByUser.merge(user.getName(), new Presence(role, 1),
+                (prev, one) -> new Presence(prev.role(), prev.sessions() + 1));
+        if (presence.sessions() == 1) {
+            counter(role).incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        String username = usernamesBySession.remove(event.getSessionId());
+        if (username == null) {
+            return;
+        }
+        Presence[] removed = new Presence[1];
+        presenceByUser.computeIfPresent(username, (k, prev) -> {
+            if (prev.sessions() > 1) {
+                return new Presence(prev.role(), prev.sessions() - 1);
+            }
+            removed[0] = prev;
+            return null;
+        });
+        if (removed[0] != null) {
+            counter(removed[0].role()).decrementAndGet();
+        }
+    }
+
+    /** Indicates whether the user has at least one session open on this node. */
+    public boolean isOnline(String username) {
+        return presenceByUser.containsKey(username);
+    }
+
+    /**
+     * Indicates whether a frame for the user may reach them.
+     *
+     * <p>With an external or clustered broker the user may be connected to
+     * another node, so only the in-memory broker allows skipping offline users.</p>
+     */
+    public boolean mayBeConnected(String username) {
+        return !localBroker || isOnline(username);
+    }
+
+    /** Number of users of the role connected to this node. */
+    public long connectedUsers(String role) {
+        AtomicLong counter = usersByRole.get(role);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private void registerGauge(MeterRegistry meterRegistry, String tag, String role) {
+        Gauge.builder("websocket.connected.users", counter(role), AtomicLong::get)
+                .description("Users with at least one STOMP session on this node")
+                .tag("role", tag)
+                .register(meterRegistry);
+    }
+
+    private AtomicLong counter(String role) {
+        return usersByRole.computeIfAbsent(role, r -> new AtomicLong());
+    }
+
+    private static String roleOf(Principal user) {
+        if (user instanceof StompPrincipal principal) {
+            if (principal.hasRole(ROLE_DRIVER)) return ROLE_DRIVER;
+            if (principal.hasRole(ROLE_CLIENT)) return ROLE_CLIENT;
+            if (principal.hasRole(ROLE_ADMIN)) return ROLE_ADMIN;
+        }
+        return "OTHER";
+    }
+
+    private record Presence(String role, int sessions) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.utez.edu.mx.viajesbackend.websocket.dto.ReplayRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * WebSocket controller that replays the frames a user missed while disconnected.
+ *
+ * <p>The client sends {@code {"epoch": "...", "lastSeq": n}} to
+ * {@code /app/replay}; the missed frames are sent again to the requesting
+ * session with their original {@code x-seq}. If they are no longer buffered,
+ * or the stream was restarted and has a new {@code x-seq-epoch}, the session
+ * receives {@code RESYNC_REQUIRED} on {@code /user/queue/replay}, stamped with
+ * the current epoch, and should reload its state through REST.</p>
+ */
+@Controller
+public class ReplayWebSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayWebSocketController.class);
+
+    private final UserReplayBuffer replayBuffer;
+    private final UserMessageSender userMessageSender;
+
+    public ReplayWebSocketController(UserReplayBuffer replayBuffer, UserMessageSender userMessageSender) {
+        this.replayBuffer = replayBuffer;
+        this.userMessageSender = userMessageSender;
+    }
+
+    @MessageMapping("/replay")
+    public void replay(@Payload ReplayRequest request, Principal principal, SimpMessageHeaderAccessor headers) {
+        if (principal == null || request == null) return;
+        String username = principal.getName();
+        String sessionId = headers.getSessionId();
+
+        List<UserReplayBuffer.Entry> missed = replayBuffer.since(username, request.getEpoch(), request.getLastSeq());
+        if (missed == null) {
+            userMessageSender.sendToSession(username, sessionId, "/queue/replay", "RESYNC_REQUIRED",
+                    replayBuffer.epochOf(username), 0);
+            logger.debug("Replay for {} after {}/{} requires resync", username, request.getEpoch(), request.getLastSeq());
+            return;
+        }
+        for (UserReplayBuffer.Entry entry : missed) {
+            userMessageSender.sendToSession(username, sessionId, entry.destination(), entry.payload(),
+                    entry.epoch(), entry.seq());
+        }
+        logger.debug("Replayed {} frames to {}", missed.size(), username);
+    }
+}
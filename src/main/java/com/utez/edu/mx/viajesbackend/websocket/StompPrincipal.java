@@ -1,16 +1,32 @@
 package com.utez.edu.mx.viajesbackend.websocket;
 
 import java.security.Principal;
+import java.util.Set;
 
 public class StompPrincipal implements Principal {
-    private String name;
+    private final String name;
+    private final Set<String> roles;
 
     public StompPrincipal(String name) {
+        this(name, Set.of());
+    }
+
+    public StompPrincipal(String name, Set<String> roles) {
         this.name = name;
+        this.roles = roles;
     }
 
     @Override
     public String getName() {
         return name;
     }
+
+    /** Authorities taken from the token's {@code roles} claim (e.g. {@code ROLE_ADMIN}). */
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
 }
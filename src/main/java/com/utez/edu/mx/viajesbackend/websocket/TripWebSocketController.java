@@ -1,9 +1,12 @@
 package com.utez.edu.mx.viajesbackend.websocket;
 
 import com.utez.edu.mx.viajesbackend.modules.trip.Trip;
+import com.utez.edu.mx.viajesbackend.utils.Geohash;
+import com.utez.edu.mx.viajesbackend.utils.GeoUtils;
 import com.utez.edu.mx.viajesbackend.websocket.dto.TripUpdateMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
@@ -18,26 +21,52 @@ public class TripWebSocketController {
 
     private static final Logger logger = LoggerFactory.getLogger(TripWebSocketController.class);
 
+    /** Prefix of the cell-scoped new-trip topics ({@code /topic/trips/new/{geohash5}}). */
+    public static final String NEW_TRIPS_TOPIC = "/topic/trips/new";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final UserMessageSender userMessageSender;
+    private final boolean legacyBroadcast;
 
-    public TripWebSocketController(SimpMessagingTemplate messagingTemplate) {
+    public TripWebSocketController(SimpMessagingTemplate messagingTemplate,
+                                   UserMessageSender userMessageSender,
+                                   @Value("${trips.broadcast.legacy-topic:true}") boolean legacyBroadcast) {
         this.messagingTemplate = messagingTemplate;
+        this.userMessageSender = userMessageSender;
+        this.legacyBroadcast = legacyBroadcast;
+    }
+
+    /**
+     * Topic for new trips whose origin falls in the given geohash cell.
+     */
+    public static String newTripsTopic(String cell) {
+        return NEW_TRIPS_TOPIC + "/" + cell;
     }
 
     /**
-     * Broadcast trip update to all drivers.
-     * Used when a new trip is requested so all drivers can see it.
+     * Broadcast a new trip to the drivers around its origin.
      *
-     * @param trip the trip that was updated
+     * <p>The trip is published on the topic of the geohash-5 cell containing its
+     * origin. Drivers subscribe to their own cell and its neighbours, so only
+     * nearby drivers receive it.</p>
+     *
+     * @param trip the trip that was requested
      */
     public void broadcastNewTripToDrivers(Trip trip) {
         try {
             TripUpdateMessage message = convertTripToMessage(trip);
             message.setMessage("New trip request available");
 
-            // Send to all drivers subscribed to /topic/trips
-            messagingTemplate.convertAndSend("/topic/trips/new", message);
-            logger.info("Broadcasted new trip {} to all drivers", trip.getId());
+            if (GeoUtils.isValidCoordinate(trip.getOriginLatitude(), trip.getOriginLongitude())) {
+                String cell = Geohash.encode(trip.getOriginLatitude(), trip.getOriginLongitude(),
+                        Geohash.TRIP_TOPIC_PRECISION);
+                messagingTemplate.convertAndSend(newTripsTopic(cell), message);
+                logger.info("Broadcasted new trip {} to cell {}", trip.getId(), cell);
+            }
+            if (legacyBroadcast) {
+                // Old clients that still listen to every request in the city
+                messagingTemplate.convertAndSend(NEW_TRIPS_TOPIC, message);
+            }
         } catch (Exception e) {
             logger.error("Error broadcasting new trip to drivers: {}", e.getMessage());
         }
@@ -51,16 +80,16 @@ public class TripWebSocketController {
      * @param message custom message to send
      */
     public void sendTripUpdateToDriver(String driverUsername, Trip trip, String message) {
+        if (!userMessageSender.isReachable(driverUsername)) {
+            return;
+        }
         try {
             TripUpdateMessage updateMessage = convertTripToMessage(trip);
             updateMessage.setMessage(message);
 
-            messagingTemplate.convertAndSendToUser(
-                    driverUsername,
-                    "/queue/trips",
-                    updateMessage
-            );
-            logger.info("Sent trip update to driver: {}", driverUsername);
+            // Only the latest state of each trip is sent within the coalescing window
+            userMessageSender.sendCoalesced(driverUsername, "/queue/trips", trip.getId(), updateMessage);
+            logger.debug("Queued trip update for driver: {}", driverUsername);
         } catch (Exception e) {
             logger.error("Error sending trip update to driver: {}", e.getMessage());
         }
@@ -74,16 +103,15 @@ public class TripWebSocketController {
      * @param message custom message to send
      */
     public void sendTripUpdateToClient(String clientUsername, Trip trip, String message) {
+        if (!userMessageSender.isReachable(clientUsername)) {
+            return;
+        }
         try {
             TripUpdateMessage updateMessage = convertTripToMessage(trip);
             updateMessage.setMessage(message);
 
-            messagingTemplate.convertAndSendToUser(
-                    clientUsername,
-                    "/queue/trips",
-                    updateMessage
-            );
-            logger.info("Sent trip update to client: {}", clientUsername);
+            userMessageSender.sendCoalesced(clientUsername, "/queue/trips", trip.getId(), updateMessage);
+            logger.debug("Queued trip update for client: {}", clientUsername);
         } catch (Exception e) {
             logger.error("Error sending trip update to client: {}", e.getMessage());
         }
@@ -1,52 +1,29 @@
 package com.utez.edu.mx.viajesbackend.websocket;
 
-import com.utez.edu.mx.viajesbackend.security.JWTUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
-import java.net.URI;
 import java.security.Principal;
 import java.util.Map;
 
+/**
+ * Handshake handler that uses the principal resolved by {@link JwtHandshakeInterceptor}.
+ *
+ * <p>The interceptor already verified the token and stored the
+ * {@link StompPrincipal} in the session attributes, so the token is not parsed again.</p>
+ */
 public class UserHandshakeHandler extends DefaultHandshakeHandler {
     private final Logger logger = LoggerFactory.getLogger(UserHandshakeHandler.class);
-    private final JWTUtil jwtUtil;
-
-    public UserHandshakeHandler(JWTUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
-    }
 
     @Override
     protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
-        try {
-            URI uri = request.getURI();
-            String query = uri.getQuery();
-            
-            if (query != null && query.contains("token=")) {
-                String token = extractTokenFromQuery(query);
-                if (token != null) {
-                    String username = jwtUtil.extractUsername(token);
-                    if (username != null) {
-                        logger.info("UserHandshakeHandler determined user: {}", username);
-                        return new StompPrincipal(username);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error determining user from handshake: {}", e.getMessage());
-        }
-        return null;
-    }
-
-    private String extractTokenFromQuery(String query) {
-        String[] params = query.split("&");
-        for (String param : params) {
-            if (param.startsWith("token=")) {
-                return param.substring(6);
-            }
+        Object principal = attributes.get(JwtHandshakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        if (principal instanceof StompPrincipal stompPrincipal) {
+            logger.debug("UserHandshakeHandler determined user: {}", stompPrincipal.getName());
+            return stompPrincipal;
         }
         return null;
     }
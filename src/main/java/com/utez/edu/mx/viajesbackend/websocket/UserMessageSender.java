@@ -0,0 +1,217 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.utez.edu.mx.viajesbackend.websocket.dto.TripUpdateMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single entry point for messages sent to user destinations.
+ *
+ * <p>{@link #sendCoalesced} keeps only the newest payload per
+ * (user, destination, key) for {@code websocket.coalesce.window-ms} and then
+ * sends it as one frame. When a trip confirmation triggers several updates for
+ * the same user within a few milliseconds, the user gets only the last state.
+ * For {@link TripUpdateMessage} "newest" is decided by {@code updatedAt} and
+ * then by status order, not by arrival, so an update that arrives late never
+ * replaces a later state.
+ * There is at most one pending frame per key, so a slow client never builds a
+ * backlog of stale updates here.</p>
+ *
+ * <p>Users with a session that negotiated a compact format
+ * ({@link WireFormatRegistry}) are sent one frame per session, encoded for that
+ * session; everyone else takes the plain {@code convertAndSendToUser} path.
+ * Every frame carries the user's sequence number in the {@value #SEQ_HEADER}
+ * header and the epoch of the user's stream in {@value #EPOCH_HEADER}.</p>
+ */
+@Component
+public class UserMessageSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserMessageSender.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final WireFormatRegistry wireFormatRegistry;
+    private final UserReplayBuffer replayBuffer;
+    private final PresenceRegistry presenceRegistry;
+    private final long windowMillis;
+    private final Map<PendingKey, Object> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public UserMessageSender(SimpMessagingTemplate messagingTemplate,
+                             SimpUserRegistry userRegistry,
+                             WireFormatRegistry wireFormatRegistry,
+                             UserReplayBuffer replayBuffer,
+                             PresenceRegistry presenceRegistry,
+                             @Value("${websocket.coalesce.window-ms:50}") long windowMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.wireFormatRegistry = wireFormatRegistry;
+        this.replayBuffer = replayBuffer;
+        this.presenceRegistry = presenceRegistry;
+        this.windowMillis = windowMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-coalesce");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** STOMP header carrying the per-user sequence number of each frame. */
+    public static final String SEQ_HEADER = "x-seq";
+
+    /** STOMP header carrying the epoch the sequence number belongs to. */
+    public static final String EPOCH_HEADER = "x-seq-epoch";
+
+    /**
+     * Indicates whether a frame for the user is worth building.
+     *
+     * <p>False only when the user has no session that could receive it and no
+     * recent stream in the {@link UserReplayBuffer} that a reconnect would replay.</p>
+     */
+    public boolean isReachable(String username) {
+        return presenceRegistry.mayBeConnected(username) || replayBuffer.isTracking(username);
+    }
+
+    /**
+     * Send a payload to a user destination right away.
+     *
+     * <p>The frame is stamped with the user's next sequence number and kept in
+     * the {@link UserReplayBuffer} so it can be replayed after a reconnect.</p>
+     *
+     * @param username    the target user
+     * @param destination user destination, e.g. {@code /queue/notifications}
+     * @param payload     the message payload
+     */
+    public void sendToUser(String username, String destination, Object payload) {
+        if (!isReachable(username)) {
+            return;
+        }
+        try {
+            replayBuffer.append(username, destination, payload, (epoch, seq) -> deliver(username, destination, payload, epoch, seq));
+        } catch (Exception e) {
+            logger.error("Error sending {} to user {}: {}", destination, username, e.getMessage());
+        }
+    }
+
+    private void deliver(String username, String destination, Object payload, String epoch, long seq) {
+        if (!wireFormatRegistry.hasCompactSession(username)) {
+            messagingTemplate.convertAndSendToUser(username, destination, payload, headers(null, epoch, seq));
+            return;
+        }
+        SimpUser user = userRegistry.getUser(username);
+        if (user == null) return;
+        for (SimpSession session : user.getSessions()) {
+            sendToSession(username, session.getId(), destination, payload, epoch, seq);
+        }
+    }
+
+    /**
+     * Send a frame to one session of the user, encoded for that session's wire format.
+     *
+     * @param epoch epoch of the user's stream, or {@code null} if unknown
+     * @param seq   sequence number to stamp, or 0 for frames outside the user's stream
+     */
+    public void sendToSession(String username, String sessionId, String destination, Object payload,
+                              String epoch, long seq) {
+        Object frame = wireFormatRegistry.isCompact(sessionId)
+                ? wireFormatRegistry.encode(sessionId, payload)
+                : payload;
+        if (frame == null) return;
+        try {
+            // A session id header makes the user destination resolve to that session only
+            messagingTemplate.convertAndSendToUser(username, destination, frame, headers(sessionId, epoch, seq));
+        } catch (Exception e) {
+            logger.error("Error sending {} to session {}: {}", destination, sessionId, e.getMessage());
+        }
+    }
+
+    private static MessageHeaders headers(String sessionId, String epoch, long seq) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (sessionId != null) {
+            headers.setSessionId(sessionId);
+        }
+        if (seq > 0) {
+            headers.setNativeHeader(SEQ_HEADER, Long.toString(seq));
+        }
+        if (epoch != null) {
+            headers.setNativeHeader(EPOCH_HEADER, epoch);
+        }
+        headers.setLeaveMutable(true);
+        return headers.getMessageHeaders();
+    }
+
+    /**
+     * Send a payload that supersedes any earlier payload with the same key.
+     *
+     * @param username    the target user
+     * @param destination user destination, e.g. {@code /queue/trips}
+     * @param key         what the payload describes (e.g. the trip id)
+     * @param payload     latest state for that key
+     */
+    public void sendCoalesced(String username, String destination, Object key, Object payload) {
+        if (windowMillis <= 0) {
+            sendToUser(username, destination, payload);
+            return;
+        }
+        PendingKey pendingKey = new PendingKey(username, destination, key);
+        boolean[] first = {false};
+        pending.compute(pendingKey, (k, current) -> {
+            if (current == null) {
+                first[0] = true;
+                return payload;
+            }
+            return isOlder(payload, current) ? current : payload;
+        });
+        if (first[0]) {
+            // First payload in the window schedules the flush; later ones replace it if newer
+            flusher.schedule(() -> flush(pendingKey), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Indicates whether {@code candidate} describes an earlier state than {@code current}.
+     */
+    static boolean isOlder(Object candidate, Object current) {
+        if (!(candidate instanceof TripUpdateMessage next) || !(current instanceof TripUpdateMessage kept)) {
+            return false;
+        }
+        if (next.getUpdatedAt() != null && kept.getUpdatedAt() != null
+                && !next.getUpdatedAt().equals(kept.getUpdatedAt())) {
+            return next.getUpdatedAt().isBefore(kept.getUpdatedAt());
+        }
+        return next.getStatus() != null && kept.getStatus() != null
+                && next.getStatus().ordinal() < kept.getStatus().ordinal();
+    }
+
+    private void flush(PendingKey key) {
+        Object payload = pending.remove(key);
+        if (payload != null) {
+            sendToUser(key.username(), key.destination(), payload);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        pending.keySet().forEach(this::flush);
+    }
+
+    private record PendingKey(String username, String destination, Object key) {
+    }
+}
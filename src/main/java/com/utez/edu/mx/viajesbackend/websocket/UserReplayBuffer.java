@@ -0,0 +1,147 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-user sequence numbers and bounded ring buffer of the frames sent to each user.
+ *
+ * <p>Every user-destined frame gets the next sequence number of its user and
+ * is kept in a ring of {@code websocket.replay.buffer-size} entries. A client
+ * that reconnects sends its last seen sequence to {@code /app/replay} and gets
+ * only the frames it missed, instead of reloading trips and notifications
+ * through REST. Users without traffic for {@code websocket.replay.idle-ttl-ms}
+ * are dropped.</p>
+ *
+ * <p>Buffers live in the memory of the node that sent the frames, so sequence
+ * numbers start over after a restart or an eviction. Each stream therefore
+ * has a random epoch that is sent with every frame; a replay request for
+ * another epoch is answered with a resync instead of frames that merely
+ * reuse the client's sequence numbers.</p>
+ */
+@Component
+public class UserReplayBuffer {
+
+    private final int capacity;
+    private final long idleTtlMillis;
+    private final Map<String, UserStream> streams = new ConcurrentHashMap<>();
+
+    public UserReplayBuffer(@Value("${websocket.replay.buffer-size:100}") int capacity,
+                            @Value("${websocket.replay.idle-ttl-ms:600000}") long idleTtlMillis) {
+        this.capacity = Math.max(1, capacity);
+        this.idleTtlMillis = idleTtlMillis;
+    }
+
+    /**
+     * Store a frame under the user's next sequence number.
+     *
+     * <p>{@code send} runs while the user's stream is locked, so frames reach
+     * the broker in sequence order.</p>
+     *
+     * @return the sequence assigned to the frame
+     */
+    public long append(String username, String destination, Object payload, Delivery send) {
+        UserStream stream = streams.computeIfAbsent(username, u -> new UserStream(capacity));
+        return stream.append(destination, payload, send);
+    }
+
+    /**
+     * Indicates whether the user has a stream in the buffer, i.e. received frames recently.
+     */
+    public boolean isTracking(String username) {
+        return streams.containsKey(username);
+    }
+
+    /**
+     * Current epoch of the user's stream, or {@code null} if the user has none.
+     */
+    public String epochOf(String username) {
+        UserStream stream = streams.get(username);
+        return stream == null ? null : stream.epoch;
+    }
+
+    /**
+     * Frames sent to the user after {@code lastSeq}.
+     *
+     * @param epoch epoch the client's {@code lastSeq} belongs to, or {@code null}
+     *              for clients that do not track it
+     * @return frames in sequence order, or {@code null} if the epoch changed or
+     * some of the frames are no longer buffered and the client has to resync
+     * through REST
+     */
+    public List<Entry> since(String username, String epoch, long lastSeq) {
+        UserStream stream = streams.get(username);
+        if (stream == null) {
+            return lastSeq <= 0 && epoch == null ? List.of() : null;
+        }
+        if (epoch != null && !epoch.equals(stream.epoch)) {
+            return null;
+        }
+        return stream.since(lastSeq);
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.replay.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        streams.values().removeIf(s -> s.lastAppendMillis < cutoff);
+    }
+
+    /**
+     * Buffered frame.
+     */
+    public record Entry(String epoch, long seq, String destination, Object payload) {
+    }
+
+    /**
+     * Sends a frame once its position in the user's stream is known.
+     */
+    @FunctionalInterface
+    public interface Delivery {
+        void send(String epoch, long seq);
+    }
+
+    private static String newEpoch() {
+        return Long.toString(System.currentTimeMillis(), 36) + "-"
+                + Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), 36);
+    }
+
+    private static final class UserStream {
+        private final String epoch = newEpoch();
+        private final Entry[] ring;
+        private long nextSeq = 1;
+        private volatile long lastAppendMillis = System.currentTimeMillis();
+
+        private UserStream(int capacity) {
+            this.ring = new Entry[capacity];
+        }
+
+        private synchronized long append(String destination, Object payload, Delivery send) {
+            long seq = nextSeq++;
+            ring[(int) (seq % ring.length)] = new Entry(epoch, seq, destination, payload);
+            lastAppendMillis = System.currentTimeMillis();
+            send.send(epoch, seq);
+            return seq;
+        }
+
+        private synchronized List<Entry> since(long lastSeq) {
+            long latest = nextSeq - 1;
+            long oldest = Math.max(1, nextSeq - ring.length);
+            if (lastSeq > latest || lastSeq + 1 < oldest) {
+                // Client is ahead (server restart) or the gap was overwritten
+                return null;
+            }
+            List<Entry> out = new ArrayList<>((int) (latest - lastSeq));
+            for (long seq = lastSeq + 1; seq <= latest; seq++) {
+                out.add(ring[(int) (seq % ring.length)]);
+            }
+            return out;
+        }
+    }
+}
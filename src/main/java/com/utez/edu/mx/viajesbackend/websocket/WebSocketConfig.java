@@ -1,10 +1,17 @@
 package com.utez.edu.mx.viajesbackend.websocket;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket configuration class for STOMP messaging.
@@ -12,17 +19,142 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * <p>This configuration enables WebSocket support with STOMP protocol,
  * configures message broker, and sets up endpoints for client connections.
  * Supports both WS and WSS protocols.</p>
+ *
+ * <p>{@code websocket.broker.mode} selects the broker:
+ * <ul>
+ *   <li>{@code simple}: in-memory broker; sessions are only reachable from the node they are connected to.</li>
+ *   <li>{@code relay}: STOMP broker relay to an external broker (RabbitMQ, ActiveMQ). Unresolved user
+ *   destinations and the user registry are broadcast through the broker, so
+ *   {@code convertAndSendToUser} reaches users connected to any node.</li>
+ *   <li>{@code cluster}: in-memory broker plus {@link ClusterBusInterceptor}, which forwards
+ *   application messages to the HTTP peers in {@code websocket.cluster.peers}. Meant for running
+ *   several instances on one machine without an external broker.</li>
+ * </ul></p>
+ *
+ * <p>The client inbound and outbound channels run on bounded pools sized by
+ * {@code websocket.channel.*}, or on virtual threads when
+ * {@code websocket.channel.executor=virtual} and the JVM supports them. Each
+ * session has a send time and buffer limit; a client that cannot keep up is
+ * disconnected instead of holding outbound threads, so one stalled client
+ * never delays delivery to the rest.</p>
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
-    private final com.utez.edu.mx.viajesbackend.security.JWTUtil jwtUtil;
+    private final AdminTopicChannelInterceptor adminTopicChannelInterceptor;
+    private final ObjectProvider<ClusterBusInterceptor> clusterBusInterceptor;
+    private final WireFormatRegistry wireFormatRegistry;
+    private final WebSocketTransportMetrics transportMetrics;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.channel.executor:pool}")
+    private String channelExecutor;
+
+    @Value("${websocket.channel.inbound.core-size:8}")
+    private int inboundCoreSize;
+
+    @Value("${websocket.channel.inbound.max-size:32}")
+    private int inboundMaxSize;
+
+    @Value("${websocket.channel.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.channel.outbound.core-size:8}")
+    private int outboundCoreSize;
+
+    @Value("${websocket.channel.outbound.max-size:32}")
+    private int outboundMaxSize;
+
+    @Value("${websocket.channel.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
 
-    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor, com.utez.edu.mx.viajesbackend.security.JWTUtil jwtUtil) {
+    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor,
+                           AdminTopicChannelInterceptor adminTopicChannelInterceptor,
+                           ObjectProvider<ClusterBusInterceptor> clusterBusInterceptor,
+                           WireFormatRegistry wireFormatRegistry,
+                           WebSocketTransportMetrics transportMetrics) {
         this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
-        this.jwtUtil = jwtUtil;
+        this.adminTopicChannelInterceptor = adminTopicChannelInterceptor;
+        this.clusterBusInterceptor = clusterBusInterceptor;
+        this.wireFormatRegistry = wireFormatRegistry;
+        this.transportMetrics = transportMetrics;
+    }
+
+    /**
+     * Restrict subscriptions to admin-only topics and record the wire format
+     * negotiated on CONNECT.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(adminTopicChannelInterceptor, wireFormatRegistry);
+        configureExecutor(registration, "ws-inbound-", inboundCoreSize, inboundMaxSize, inboundQueueCapacity);
+    }
+
+    /**
+     * Size the pool that writes frames to client sessions.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "ws-outbound-", outboundCoreSize, outboundMaxSize, outboundQueueCapacity);
+    }
+
+    /**
+     * Per-session limits: a session whose pending sends exceed the time or
+     * buffer limit is closed and counted in {@link WebSocketTransportMetrics}.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(transportMetrics);
+    }
+
+    private void configureExecutor(ChannelRegistration registration, String threadPrefix,
+                                   int coreSize, int maxSize, int queueCapacity) {
+        if ("virtual".equalsIgnoreCase(channelExecutor)) {
+            try {
+                registration.executor(new VirtualThreadTaskExecutor(threadPrefix));
+                return;
+            } catch (UnsupportedOperationException e) {
+                logger.warn("Virtual threads are not available on Java {}; using a thread pool for {}",
+                        Runtime.version().feature(), threadPrefix);
+            }
+        }
+        registration.taskExecutor()
+                .corePoolSize(coreSize)
+                .maxPoolSize(maxSize)
+                .queueCapacity(queueCapacity);
     }
 
     /**
@@ -34,15 +166,35 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        // Messages with destination starting with /topic or /queue will be routed to the broker
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // External broker shared by every node
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Enable a simple in-memory message broker
+            // Messages with destination starting with /topic or /queue will be routed to the broker
+            config.enableSimpleBroker("/topic", "/queue");
+            clusterBusInterceptor.ifAvailable(bus -> config.configureBrokerChannel().interceptors(bus));
+        }
 
         // Messages with destination starting with /app will be routed to @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
 
         // Optional: Set user destination prefix for sending messages to specific users
         config.setUserDestinationPrefix("/user");
+
+        // Frames to a session keep their publish order (x-seq) even with a multi-threaded outbound pool
+        config.setPreservePublishOrder(true);
     }
 
     /**
@@ -58,14 +210,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .addInterceptors(jwtHandshakeInterceptor)
-                .setHandshakeHandler(new UserHandshakeHandler(jwtUtil))
+                .setHandshakeHandler(new UserHandshakeHandler())
                 .setAllowedOriginPatterns("*") // For development; restrict in production
                 .withSockJS(); // Fallback for browsers without WebSocket support
 
         // Native WebSocket endpoint without SockJS (for WSS support)
         registry.addEndpoint("/ws")
                 .addInterceptors(jwtHandshakeInterceptor)
-                .setHandshakeHandler(new UserHandshakeHandler(jwtUtil))
+                .setHandshakeHandler(new UserHandshakeHandler())
                 .setAllowedOriginPatterns("*");
     }
 }
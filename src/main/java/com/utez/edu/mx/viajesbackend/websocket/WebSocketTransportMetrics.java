@@ -0,0 +1,76 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+/**
+ * Metrics for the STOMP transport.
+ *
+ * <ul>
+ *   <li>{@code websocket.channel.queue} and {@code websocket.channel.active} (tag {@code channel}):
+ *   pending tasks and busy threads of the inbound and outbound channel pools. Not registered
+ *   when the channel runs on virtual threads, which have no queue.</li>
+ *   <li>{@code websocket.sessions.dropped.slow}: sessions closed because they exceeded the
+ *   send time or buffer limit ({@link CloseStatus#SESSION_NOT_RELIABLE}).</li>
+ * </ul>
+ */
+@Component
+public class WebSocketTransportMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final MeterRegistry meterRegistry;
+    private final BeanFactory beanFactory;
+    private final Counter droppedSlowSessions;
+
+    public WebSocketTransportMetrics(MeterRegistry meterRegistry, BeanFactory beanFactory) {
+        this.meterRegistry = meterRegistry;
+        this.beanFactory = beanFactory;
+        this.droppedSlowSessions = Counter.builder("websocket.sessions.dropped.slow")
+                .description("STOMP sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerChannelGauges() {
+        registerPoolGauges("inbound", "clientInboundChannelExecutor");
+        registerPoolGauges("outbound", "clientOutboundChannelExecutor");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    droppedSlowSessions.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private void registerPoolGauges(String channel, String beanName) {
+        if (!beanFactory.containsBean(beanName)
+                || !(beanFactory.getBean(beanName) instanceof ThreadPoolTaskExecutor executor)) {
+            return;
+        }
+        Gauge.builder("websocket.channel.queue", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Tasks waiting in the STOMP channel pool")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Busy threads in the STOMP channel pool")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+}
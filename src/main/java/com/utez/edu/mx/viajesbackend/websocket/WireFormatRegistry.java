@@ -0,0 +1,152 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utez.edu.mx.viajesbackend.modules.trip.TripStatus;
+import com.utez.edu.mx.viajesbackend.websocket.dto.TripUpdateMessage;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the wire format negotiated by each STOMP session and encodes payloads for it.
+ *
+ * <p>Clients choose the format with the {@value #FORMAT_HEADER} header of the
+ * CONNECT frame:
+ * <ul>
+ *   <li>{@code full} (default): payloads are sent as-is.</li>
+ *   <li>{@code delta}: a {@link TripUpdateMessage} is sent as
+ *   {@code {"tripId", "delta", "fields"}}. The first frame for a trip carries
+ *   every non-null field ({@code delta=false}); later frames carry only the
+ *   fields that changed since the last frame for that trip on that session.
+ *   Other payloads are sent without null fields.</li>
+ * </ul></p>
+ */
+@Component
+public class WireFormatRegistry implements ChannelInterceptor {
+
+    /** CONNECT header used to negotiate the format. */
+    public static final String FORMAT_HEADER = "x-wire-format";
+
+    public static final String FORMAT_DELTA = "delta";
+
+    private static final Set<TripStatus> FINAL_STATUSES = Set.of(TripStatus.COMPLETED, TripStatus.CANCELLED);
+
+    private static final TypeReference<LinkedHashMap<String, Object>> FIELDS_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    /** Delta sessions with the last fields sent per trip. */
+    private final Map<String, Map<Long, Map<String, Object>>> deltaSessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> deltaSessionsByUser = new ConcurrentHashMap<>();
+
+    public WireFormatRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String format = accessor.getFirstNativeHeader(FORMAT_HEADER);
+        Principal user = accessor.getUser();
+        String sessionId = accessor.getSessionId();
+        if (FORMAT_DELTA.equalsIgnoreCase(format) && user != null && sessionId != null) {
+            deltaSessions.put(sessionId, new ConcurrentHashMap<>());
+            deltaSessionsByUser.computeIfAbsent(user.getName(), k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (deltaSessions.remove(event.getSessionId()) == null) return;
+        Principal user = event.getUser();
+        if (user != null) {
+            deltaSessionsByUser.computeIfPresent(user.getName(), (k, sessions) -> {
+                sessions.remove(event.getSessionId());
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    /** Indicates whether any session of the user negotiated a compact format. */
+    public boolean hasCompactSession(String username) {
+        return deltaSessionsByUser.containsKey(username);
+    }
+
+    /** Indicates whether the session negotiated a compact format. */
+    public boolean isCompact(String sessionId) {
+        return deltaSessions.containsKey(sessionId);
+    }
+
+    /**
+     * Encode the payload for a compact session.
+     *
+     * @return the frame to send, or {@code null} if nothing changed
+     */
+    public Object encode(String sessionId, Object payload) {
+        Map<Long, Map<String, Object>> lastByTrip = deltaSessions.get(sessionId);
+        if (lastByTrip == null || payload instanceof CharSequence || payload instanceof Map) {
+            return payload;
+        }
+        if (!(payload instanceof TripUpdateMessage trip) || trip.getTripId() == null) {
+            Map<String, Object> fields = toFields(payload);
+            fields.values().removeIf(Objects::isNull);
+            return fields;
+        }
+
+        Map<String, Object> current = fieldsOf(trip);
+        Map<String, Object> previous = FINAL_STATUSES.contains(trip.getStatus())
+                ? lastByTrip.remove(trip.getTripId())
+                : lastByTrip.put(trip.getTripId(), current);
+
+        Map<String, Object> changed = new LinkedHashMap<>();
+        if (previous == null) {
+            current.forEach((k, v) -> {
+                if (v != null) changed.put(k, v);
+            });
+        } else {
+            current.forEach((k, v) -> {
+                if (!Objects.equals(v, previous.get(k))) changed.put(k, v);
+            });
+            if (changed.isEmpty()) {
+                return null;
+            }
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("tripId", trip.getTripId());
+        frame.put("delta", previous != null);
+        frame.put("fields", changed);
+        return frame;
+    }
+
+    /**
+     * Fields of the update as Jackson would serialize them, without {@code tripId}
+     * (it goes in the frame itself).
+     */
+    private Map<String, Object> fieldsOf(TripUpdateMessage m) {
+        Map<String, Object> f = toFields(m);
+        f.remove("tripId");
+        return f;
+    }
+
+    private Map<String, Object> toFields(Object payload) {
+        return objectMapper.convertValue(payload, FIELDS_TYPE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.utez.edu.mx.viajesbackend.websocket.dto;
+
+import java.util.List;
+
+/**
+ * DTO sent to a driver when their geohash cell changes.
+ *
+ * <p>{@code topics} lists the new-trip destinations the driver should be
+ * subscribed to: their own cell followed by its neighbours. Clients should
+ * subscribe to any topic not yet subscribed and drop the rest.</p>
+ */
+public class DriverCellsMessage {
+
+    private String cell;
+    private List<String> topics;
+
+    public DriverCellsMessage() {
+    }
+
+    public DriverCellsMessage(String cell, List<String> topics) {
+        this.cell = cell;
+        this.topics = topics;
+    }
+
+    // Getters and Setters
+    public String getCell() {
+        return cell;
+    }
+
+    public void setCell(String cell) {
+        this.cell = cell;
+    }
+
+    public List<String> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(List<String> topics) {
+        this.topics = topics;
+    }
+}
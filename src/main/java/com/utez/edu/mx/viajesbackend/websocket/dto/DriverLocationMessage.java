@@ -0,0 +1,33 @@
+package com.utez.edu.mx.viajesbackend.websocket.dto;
+
+/**
+ * DTO for GPS pings sent by drivers over WebSocket.
+ *
+ * <p>The driver is identified by the authenticated STOMP principal, so the
+ * payload only carries the coordinates.</p>
+ */
+public class DriverLocationMessage {
+
+    private Double latitude;
+    private Double longitude;
+
+    public DriverLocationMessage() {
+    }
+
+    // Getters and Setters
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
@@ -0,0 +1,33 @@
+package com.utez.edu.mx.viajesbackend.websocket.dto;
+
+/**
+ * DTO sent by a client to {@code /app/replay} after reconnecting.
+ */
+public class ReplayRequest {
+
+    /** Epoch ({@code x-seq-epoch} header) of the frames the client received; null if none. */
+    private String epoch;
+
+    /** Last sequence number ({@code x-seq} header) the client received; 0 if none. */
+    private long lastSeq;
+
+    public ReplayRequest() {
+    }
+
+    // Getters and Setters
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
@@ -0,0 +1,69 @@
+package com.utez.edu.mx.viajesbackend.modules.driver.Location;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DriverLocationStoreTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DriverLocationStore store =
+            new DriverLocationStore(jdbcTemplate, meterRegistry, 0, 10, 100, 60_000);
+
+    private double dropped() {
+        return meterRegistry.get("drivers.location.trail.dropped").counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failWrites() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedOnNextFlush() {
+        store.update(1L, "ana", 18.85, -99.2);
+        failWrites();
+        store.flushTrail();
+
+        reset(jdbcTemplate);
+        store.flushTrail();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((Collection<?> batch) -> batch.size() == 1),
+                eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0.0, dropped());
+    }
+
+    @Test
+    void batchIsDroppedAndCountedAfterMaxAttempts() {
+        store.update(1L, "ana", 18.85, -99.2);
+        store.update(2L, "luis", 18.86, -99.21);
+        failWrites();
+
+        for (int i = 0; i < DriverLocationStore.MAX_FLUSH_ATTEMPTS; i++) {
+            store.flushTrail();
+        }
+
+        assertEquals(2.0, dropped());
+    }
+
+    @Test
+    void pointsRejectedByFullQueueAreCounted() {
+        for (long id = 0; id < 12; id++) {
+            store.update(id, "user" + id, 18.85, -99.2);
+        }
+
+        assertEquals(2.0, dropped());
+    }
+}
@@ -0,0 +1,154 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverLocationStore;
+import com.utez.edu.mx.viajesbackend.modules.driver.Location.DriverPosition;
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverAvailability;
+import com.utez.edu.mx.viajesbackend.modules.driver.Profile.DriverProfileRepository;
+import com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO;
+import com.utez.edu.mx.viajesbackend.websocket.TripWebSocketController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DispatchMatcherTest {
+
+    private static final double LAT = 18.9242;
+    private static final double LNG = -99.2216;
+
+    private OpenTripIndex openTripIndex;
+    private DriverLocationStore driverLocationStore;
+    private DriverProfileRepository driverProfileRepository;
+    private TripRepository tripRepository;
+    private TripWebSocketController tripWebSocketController;
+    private final List<DriverPosition.Snapshot> drivers = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        openTripIndex = new OpenTripIndex();
+        driverLocationStore = mock(DriverLocationStore.class);
+        driverProfileRepository = mock(DriverProfileRepository.class);
+        tripRepository = mock(TripRepository.class);
+        tripWebSocketController = mock(TripWebSocketController.class);
+
+        when(driverLocationStore.findFresh(anyLong())).thenAnswer(inv -> List.copyOf(drivers));
+        when(driverProfileRepository.findOperableIdsByAvailability(anyCollection(), eq(DriverAvailability.DISPONIBLE)))
+                .thenAnswer(inv -> new ArrayList<>((Collection<Long>) inv.getArgument(0)));
+        when(tripRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Trip> trips = new ArrayList<>();
+            for (Long id : (Iterable<Long>) inv.getArgument(0)) {
+                Trip trip = new Trip();
+                trip.setId(id);
+                trip.setStatus(TripStatus.REQUESTED);
+                trips.add(trip);
+            }
+            return trips;
+        });
+    }
+
+    private DispatchMatcher matcher(long offerTimeoutMs) {
+        return new DispatchMatcher(openTripIndex, driverLocationStore, driverProfileRepository, tripRepository,
+                tripWebSocketController, true, 500, offerTimeoutMs, 8, 200);
+    }
+
+    private void openTrip(long id, double lat, double lng) {
+        TripDTO dto = new TripDTO();
+        dto.setId(id);
+        dto.setOriginLatitude(lat);
+        dto.setOriginLongitude(lng);
+        dto.setCreatedAt(LocalDateTime.now());
+        openTripIndex.add(dto);
+    }
+
+    private void driver(long id, String username, double lat, double lng) {
+        drivers.add(new DriverPosition.Snapshot(id, username, lat, lng, System.currentTimeMillis()));
+    }
+
+    @Test
+    void offersTripToNearestDriverOnly() {
+        openTrip(1, LAT, LNG);
+        driver(10, "far", LAT + 0.03, LNG);     // ~3.3 km
+        driver(20, "near", LAT + 0.01, LNG);    // ~1.1 km
+        DispatchMatcher matcher = matcher(15_000);
+
+        matcher.matchRound();
+
+        verify(tripWebSocketController).sendTripUpdateToDriver(eq("near"), any(Trip.class), eq(DispatchMatcher.OFFER_MESSAGE));
+        verify(tripWebSocketController, never()).sendTripUpdateToDriver(eq("far"), any(), any());
+        assertTrue(matcher.isOfferedTo(1L, 20L));
+        assertTrue(matcher.isOfferedToAnother(1L, 10L));
+    }
+
+    @Test
+    void driversBeyondPickupRadiusGetNoOffer() {
+        openTrip(1, LAT, LNG);
+        driver(10, "far", LAT + 0.1, LNG);      // ~11 km
+        DispatchMatcher matcher = matcher(15_000);
+
+        matcher.matchRound();
+
+        verifyNoInteractions(tripWebSocketController);
+        verify(driverProfileRepository, never()).findOperableIdsByAvailability(any(), any());
+    }
+
+    @Test
+    void eachDriverGetsAtMostOneOfferPerRound() {
+        openTrip(1, LAT, LNG);
+        openTrip(2, LAT + 0.001, LNG);
+        driver(10, "only", LAT, LNG);
+        DispatchMatcher matcher = matcher(15_000);
+
+        matcher.matchRound();
+        matcher.matchRound();
+
+        verify(tripWebSocketController, times(1)).sendTripUpdateToDriver(eq("only"), any(Trip.class), any());
+    }
+
+    @Test
+    void expiredOfferMovesToNextDriverAndSkipsTheFirst() {
+        openTrip(1, LAT, LNG);
+        driver(10, "near", LAT + 0.01, LNG);
+        driver(20, "far", LAT + 0.03, LNG);
+        DispatchMatcher matcher = matcher(0);
+
+        matcher.matchRound();
+        matcher.matchRound();
+
+        verify(tripWebSocketController).sendTripUpdateToDriver(eq("near"), any(Trip.class), any());
+        verify(tripWebSocketController).sendTripUpdateToDriver(eq("far"), any(Trip.class), any());
+    }
+
+    @Test
+    void declinedDriverIsNotOfferedTheTripAgain() {
+        openTrip(1, LAT, LNG);
+        driver(10, "near", LAT + 0.01, LNG);
+        DispatchMatcher matcher = matcher(15_000);
+
+        matcher.matchRound();
+        matcher.decline(1L, 10L);
+        matcher.matchRound();
+
+        verify(tripWebSocketController, times(1)).sendTripUpdateToDriver(eq("near"), any(Trip.class), any());
+        assertFalse(matcher.isOfferedTo(1L, 10L));
+    }
+
+    @Test
+    void unavailableDriversAreFilteredOut() {
+        openTrip(1, LAT, LNG);
+        driver(10, "busy", LAT, LNG);
+        when(driverProfileRepository.findOperableIdsByAvailability(anyCollection(), any())).thenReturn(List.of());
+        DispatchMatcher matcher = matcher(15_000);
+
+        matcher.matchRound();
+
+        verifyNoInteractions(tripWebSocketController);
+    }
+}
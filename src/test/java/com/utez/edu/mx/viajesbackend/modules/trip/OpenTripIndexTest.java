@@ -0,0 +1,78 @@
+package com.utez.edu.mx.viajesbackend.modules.trip;
+
+import com.utez.edu.mx.viajesbackend.modules.trip.DTO.TripDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenTripIndexTest {
+
+    private static TripDTO trip(long id, double lat, double lng) {
+        TripDTO dto = new TripDTO();
+        dto.setId(id);
+        dto.setOriginLatitude(lat);
+        dto.setOriginLongitude(lng);
+        dto.setCreatedAt(LocalDateTime.now());
+        return dto;
+    }
+
+    @Test
+    void findNearbyReturnsTripsInsideRadiusSortedByDistance() {
+        OpenTripIndex index = new OpenTripIndex();
+        index.add(trip(1, 18.9300, -99.2216));   // ~0.6 km
+        index.add(trip(2, 18.9242, -99.2216));   // mismo punto
+        index.add(trip(3, 19.4326, -99.1332));   // CDMX, ~57 km
+
+        List<OpenTripIndex.NearbyTrip> nearby = index.findNearby(18.9242, -99.2216, 5);
+
+        assertEquals(List.of(2L, 1L), nearby.stream().map(n -> n.trip().getId()).toList());
+        assertTrue(nearby.get(0).distanceKm() < nearby.get(1).distanceKm());
+    }
+
+    @Test
+    void wideQueryOverSparseIndexScansOccupiedCells() {
+        OpenTripIndex index = new OpenTripIndex();
+        index.add(trip(1, 18.9242, -99.2216));
+        index.add(trip(2, 19.2000, -99.2216));   // ~30.7 km al norte
+
+        List<OpenTripIndex.NearbyTrip> nearby = index.findNearby(18.9242, -99.2216, OpenTripIndex.MAX_RADIUS_KM);
+
+        assertEquals(List.of(1L, 2L), nearby.stream().map(n -> n.trip().getId()).toList());
+    }
+
+    @Test
+    void queryCrossingCellBoundariesFindsNeighbourCells() {
+        OpenTripIndex index = new OpenTripIndex();
+        // Celdas negativas y positivas alrededor del meridiano de Greenwich
+        index.add(trip(1, 0.0005, -0.0005));
+        index.add(trip(2, -0.0005, 0.0005));
+
+        assertEquals(2, index.findNearby(0, 0, 1).size());
+    }
+
+    @Test
+    void removeAndReplaceKeepIndexConsistent() {
+        OpenTripIndex index = new OpenTripIndex();
+        index.add(trip(1, 18.9242, -99.2216));
+        index.add(trip(1, 19.4326, -99.1332));   // mismo viaje, nuevo origen
+
+        assertEquals(1, index.size());
+        assertTrue(index.findNearby(18.9242, -99.2216, 5).isEmpty());
+        assertEquals(1, index.findNearby(19.4326, -99.1332, 5).size());
+
+        index.remove(1L);
+        assertFalse(index.contains(1L));
+        assertTrue(index.findNearby(19.4326, -99.1332, 5).isEmpty());
+    }
+
+    @Test
+    void tripsWithoutValidOriginAreIgnored() {
+        OpenTripIndex index = new OpenTripIndex();
+        index.add(trip(1, 200, 0));
+
+        assertEquals(0, index.size());
+    }
+}
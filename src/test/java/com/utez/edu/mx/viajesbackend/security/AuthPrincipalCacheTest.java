@@ -0,0 +1,94 @@
+package com.utez.edu.mx.viajesbackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthPrincipalCacheTest {
+
+    private static UserDetails user(String username) {
+        return User.withUsername(username).password("x").authorities("ROLE_CLIENTE").build();
+    }
+
+    @Test
+    void concurrentLoadsOfTheSameUserShareOneLookup() throws Exception {
+        AuthPrincipalCache cache = new AuthPrincipalCache(100, 60_000);
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserDetails ana = user("ana");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.load("ana", u -> {
+                lookups.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return ana;
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> cache.load("ana", u -> {
+                    lookups.incrementAndGet();
+                    return user("ana");
+                })));
+            }
+            // Da tiempo a que las demás llamadas encuentren la carga en curso
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<UserDetails> result : results) {
+                assertSame(ana, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, lookups.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadIsNotCachedAndNextCallLoadsAgain() {
+        AuthPrincipalCache cache = new AuthPrincipalCache(100, 60_000);
+
+        assertThrows(IllegalStateException.class, () -> cache.load("ana", u -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("ana", cache.load("ana", AuthPrincipalCacheTest::user).getUsername());
+    }
+
+    @Test
+    void entriesExpireWithTheTokenAndAreEvictedPerUser() {
+        AuthPrincipalCache cache = new AuthPrincipalCache(100, 60_000);
+        long now = System.currentTimeMillis();
+
+        cache.put("expired", user("ana"), now - 1);
+        cache.put("live", user("ana"), now + 60_000);
+        cache.put("other", user("luis"), now + 60_000);
+        assertNull(cache.get("expired"));
+        assertNotNull(cache.get("live"));
+
+        cache.evictUser("ana");
+        assertNull(cache.get("live"));
+        assertNotNull(cache.get("other"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.utez.edu.mx.viajesbackend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeohashTest {
+
+    @Test
+    void encodeMatchesReferenceHash() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("9g37w", Geohash.encode(18.9242, -99.2216, Geohash.TRIP_TOPIC_PRECISION));
+    }
+
+    @Test
+    void cellAndNeighboursReturnsCellFirstAndEightDistinctNeighbours() {
+        List<String> cells = Geohash.cellAndNeighbours("9g37w");
+
+        assertEquals("9g37w", cells.get(0));
+        assertEquals(9, new HashSet<>(cells).size());
+        assertTrue(cells.contains("9g37x"));
+        assertTrue(cells.contains("9g37t"));
+    }
+
+    @Test
+    void neighboursWrapAroundTheAntimeridian() {
+        String east = Geohash.encode(0.01, 179.99, 5);
+        String west = Geohash.encode(0.01, -179.99, 5);
+
+        assertTrue(Geohash.cellAndNeighbours(east).contains(west));
+    }
+
+    @Test
+    void cellsCoveringAddsRingsWhenRadiusExceedsOneCell() {
+        assertEquals(9, Geohash.cellsCovering("9g37w", 3).size());
+        assertEquals(25, Geohash.cellsCovering("9g37w", 8).size());
+    }
+
+    @Test
+    void cellsCoveringReachesPickupRadiusFromTheCellEdge() {
+        String cell = "9g37w";
+        double[] box = Geohash.bounds(cell);
+        List<String> covered = Geohash.cellsCovering(cell, 8);
+
+        // 7.9 km al este y al norte de las esquinas opuestas de la celda
+        double lngStep = 7.9 / (GeoUtils.KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(box[1])));
+        double latStep = 7.9 / GeoUtils.KM_PER_DEGREE_LAT;
+        assertTrue(covered.contains(Geohash.encode(box[1] - 1e-6, box[3] + lngStep, 5)));
+        assertTrue(covered.contains(Geohash.encode(box[0] - latStep, box[2] + 1e-6, 5)));
+    }
+}
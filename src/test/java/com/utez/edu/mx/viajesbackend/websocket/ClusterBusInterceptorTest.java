@@ -0,0 +1,73 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterBusInterceptorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ClusterBusInterceptor interceptor =
+            new ClusterBusInterceptor("http://localhost:1", "test-secret", objectMapper);
+
+    private static Message<byte[]> userFrame(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/user/ana/queue/trips");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(UserMessageSender.SEQ_HEADER, "42");
+        accessor.setNativeHeader(UserMessageSender.EPOCH_HEADER, "epoch-1");
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage("{\"tripId\":1}".getBytes(StandardCharsets.UTF_8),
+                accessor.getMessageHeaders());
+    }
+
+    @Test
+    void forwardedFrameKeepsSequenceAndEpochHeaders() throws Exception {
+        byte[] body = interceptor.encode(userFrame(null));
+        Map<String, Object> frame = objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+
+        Message<byte[]> received = ClusterBusController.toMessage(frame);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(received);
+        assertEquals("/user/ana/queue/trips", accessor.getDestination());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, accessor.getContentType());
+        assertEquals("42", accessor.getFirstNativeHeader(UserMessageSender.SEQ_HEADER));
+        assertEquals("epoch-1", accessor.getFirstNativeHeader(UserMessageSender.EPOCH_HEADER));
+        assertEquals("{\"tripId\":1}", new String(received.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void onlyUserAndTopicFramesWithoutSessionAreForwarded() {
+        assertTrue(ClusterBusInterceptor.shouldForward(userFrame(null)));
+        assertFalse(ClusterBusInterceptor.shouldForward(userFrame("s1")));
+
+        SimpMessageHeaderAccessor app = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        app.setDestination("/app/replay");
+        assertFalse(ClusterBusInterceptor.shouldForward(
+                MessageBuilder.createMessage(new byte[0], app.getMessageHeaders())));
+    }
+
+    @Test
+    void frameWithoutPayloadIsRejected() {
+        assertNull(ClusterBusController.toMessage(Map.of("destination", "/topic/trips/new")));
+    }
+
+    @Test
+    void placeholderSecretFailsStartup() {
+        assertThrows(IllegalStateException.class, () -> new ClusterBusInterceptor("", "change-me", objectMapper));
+        assertThrows(IllegalStateException.class, () -> new ClusterBusInterceptor("", " ", objectMapper));
+    }
+}
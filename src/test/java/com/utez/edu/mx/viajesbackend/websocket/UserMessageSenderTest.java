@@ -0,0 +1,90 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.utez.edu.mx.viajesbackend.modules.trip.TripStatus;
+import com.utez.edu.mx.viajesbackend.websocket.dto.TripUpdateMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserMessageSenderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 14, 10, 30);
+
+    private SimpMessagingTemplate messagingTemplate;
+    private UserMessageSender sender;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        WireFormatRegistry wireFormatRegistry = mock(WireFormatRegistry.class);
+        PresenceRegistry presenceRegistry = mock(PresenceRegistry.class);
+        when(presenceRegistry.mayBeConnected(any())).thenReturn(true);
+        sender = new UserMessageSender(messagingTemplate, mock(SimpUserRegistry.class), wireFormatRegistry,
+                new UserReplayBuffer(10, 60_000), presenceRegistry, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdown();
+    }
+
+    private static TripUpdateMessage update(TripStatus status, LocalDateTime updatedAt, String message) {
+        TripUpdateMessage m = new TripUpdateMessage();
+        m.setTripId(1L);
+        m.setStatus(status);
+        m.setUpdatedAt(updatedAt);
+        m.setMessage(message);
+        return m;
+    }
+
+    @Test
+    void updatesWithinTheWindowAreSentAsOneFrame() {
+        sender.sendCoalesced("ana", "/queue/trips", 1L, update(TripStatus.ACCEPTED, T0, "first"));
+        sender.sendCoalesced("ana", "/queue/trips", 1L, update(TripStatus.ACCEPTED, T0.plusSeconds(1), "second"));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(1000).times(1))
+                .convertAndSendToUser(eq("ana"), eq("/queue/trips"), payload.capture(), any(MessageHeaders.class));
+        assertEquals("second", ((TripUpdateMessage) payload.getValue()).getMessage());
+    }
+
+    @Test
+    void lateOlderUpdateDoesNotReplaceNewerState() {
+        sender.sendCoalesced("ana", "/queue/trips", 1L, update(TripStatus.IN_PROGRESS, T0.plusSeconds(5), "newer"));
+        sender.sendCoalesced("ana", "/queue/trips", 1L, update(TripStatus.ACCEPTED, T0, "older"));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(1000).times(1))
+                .convertAndSendToUser(eq("ana"), eq("/queue/trips"), payload.capture(), any(MessageHeaders.class));
+        assertEquals("newer", ((TripUpdateMessage) payload.getValue()).getMessage());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        sender.sendCoalesced("ana", "/queue/trips", 1L, update(TripStatus.ACCEPTED, T0, "one"));
+        sender.sendCoalesced("ana", "/queue/trips", 2L, update(TripStatus.ACCEPTED, T0, "two"));
+
+        verify(messagingTemplate, timeout(1000).times(2))
+                .convertAndSendToUser(eq("ana"), eq("/queue/trips"), any(Object.class), any(MessageHeaders.class));
+    }
+
+    @Test
+    void isOlderFallsBackToStatusOrderWhenTimestampsTie() {
+        assertTrue(UserMessageSender.isOlder(update(TripStatus.ACCEPTED, T0, null), update(TripStatus.COMPLETED, T0, null)));
+        assertFalse(UserMessageSender.isOlder(update(TripStatus.COMPLETED, T0, null), update(TripStatus.ACCEPTED, T0, null)));
+        assertTrue(UserMessageSender.isOlder(update(TripStatus.COMPLETED, T0, null),
+                update(TripStatus.ACCEPTED, T0.plusSeconds(1), null)));
+        assertFalse(UserMessageSender.isOlder("plain", "payload"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserReplayBufferTest {
+
+    private static void appendAll(UserReplayBuffer buffer, String username, int count) {
+        for (int i = 1; i <= count; i++) {
+            buffer.append(username, "/queue/trips", "frame-" + i, (epoch, seq) -> { });
+        }
+    }
+
+    @Test
+    void sequencesStartAtOneAndIncreasePerUser() {
+        UserReplayBuffer buffer = new UserReplayBuffer(10, 60_000);
+        List<Long> sent = new ArrayList<>();
+
+        buffer.append("ana", "/queue/trips", "a", (epoch, seq) -> sent.add(seq));
+        buffer.append("ana", "/queue/trips", "b", (epoch, seq) -> sent.add(seq));
+        buffer.append("luis", "/queue/trips", "c", (epoch, seq) -> sent.add(seq));
+
+        assertEquals(List.of(1L, 2L, 1L), sent);
+        assertNotEquals(buffer.epochOf("ana"), buffer.epochOf("luis"));
+    }
+
+    @Test
+    void replayAfterWrapAroundReturnsOnlyBufferedFrames() {
+        UserReplayBuffer buffer = new UserReplayBuffer(3, 60_000);
+        appendAll(buffer, "ana", 5);
+        String epoch = buffer.epochOf("ana");
+
+        List<UserReplayBuffer.Entry> missed = buffer.since("ana", epoch, 2);
+
+        assertEquals(List.of(3L, 4L, 5L), missed.stream().map(UserReplayBuffer.Entry::seq).toList());
+        assertEquals("frame-3", missed.get(0).payload());
+        assertTrue(buffer.since("ana", epoch, 5).isEmpty());
+    }
+
+    @Test
+    void overwrittenGapRequiresResync() {
+        UserReplayBuffer buffer = new UserReplayBuffer(3, 60_000);
+        appendAll(buffer, "ana", 5);
+
+        assertNull(buffer.since("ana", buffer.epochOf("ana"), 1));
+    }
+
+    @Test
+    void clientAheadOfServerRequiresResync() {
+        UserReplayBuffer buffer = new UserReplayBuffer(3, 60_000);
+        appendAll(buffer, "ana", 2);
+
+        assertNull(buffer.since("ana", buffer.epochOf("ana"), 7));
+    }
+
+    @Test
+    void otherEpochRequiresResyncEvenIfSequenceExists() {
+        UserReplayBuffer buffer = new UserReplayBuffer(10, 60_000);
+        appendAll(buffer, "ana", 5);
+
+        assertNull(buffer.since("ana", "old-epoch", 2));
+        assertEquals(3, buffer.since("ana", null, 2).size());
+    }
+
+    @Test
+    void evictedStreamStartsANewEpoch() {
+        UserReplayBuffer buffer = new UserReplayBuffer(10, -1);
+        appendAll(buffer, "ana", 3);
+        String before = buffer.epochOf("ana");
+
+        buffer.evictIdle();
+        assertNull(buffer.since("ana", before, 3));
+
+        appendAll(buffer, "ana", 1);
+        assertNotEquals(before, buffer.epochOf("ana"));
+        assertNull(buffer.since("ana", before, 0));
+    }
+}
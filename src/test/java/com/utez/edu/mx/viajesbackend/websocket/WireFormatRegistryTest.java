@@ -0,0 +1,100 @@
+package com.utez.edu.mx.viajesbackend.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.utez.edu.mx.viajesbackend.modules.trip.TripStatus;
+import com.utez.edu.mx.viajesbackend.websocket.dto.TripUpdateMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatRegistryTest {
+
+    private static final String SESSION = "s1";
+
+    private WireFormatRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        registry = new WireFormatRegistry(objectMapper);
+
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(SESSION);
+        connect.setUser(() -> "ana");
+        connect.setNativeHeader(WireFormatRegistry.FORMAT_HEADER, WireFormatRegistry.FORMAT_DELTA);
+        registry.preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+    }
+
+    private static TripUpdateMessage update(TripStatus status, Double fare) {
+        TripUpdateMessage m = new TripUpdateMessage();
+        m.setTripId(7L);
+        m.setStatus(status);
+        m.setFare(fare);
+        m.setUpdatedAt(LocalDateTime.of(2025, 1, 14, 10, 30));
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> fields(Object frame) {
+        return (Map<String, Object>) ((Map<String, Object>) frame).get("fields");
+    }
+
+    @Test
+    void connectHeaderRegistersCompactSession() {
+        assertTrue(registry.isCompact(SESSION));
+        assertTrue(registry.hasCompactSession("ana"));
+        assertFalse(registry.isCompact("other"));
+    }
+
+    @Test
+    void firstFrameCarriesEveryNonNullFieldAndLaterFramesOnlyChanges() {
+        Object first = registry.encode(SESSION, update(TripStatus.REQUESTED, 80.0));
+        assertEquals(false, ((Map<?, ?>) first).get("delta"));
+        assertEquals(7L, ((Map<?, ?>) first).get("tripId"));
+        Map<String, Object> full = fields(first);
+        assertEquals("REQUESTED", full.get("status"));
+        assertEquals(80.0, full.get("fare"));
+        assertEquals("2025-01-14T10:30:00", full.get("updatedAt"));
+        assertFalse(full.containsKey("tripId"));
+        assertFalse(full.containsKey("driverId"));
+
+        Object second = registry.encode(SESSION, update(TripStatus.ACCEPTED, 80.0));
+        assertEquals(true, ((Map<?, ?>) second).get("delta"));
+        assertEquals(Map.of("status", "ACCEPTED"), fields(second));
+    }
+
+    @Test
+    void unchangedUpdateProducesNoFrame() {
+        registry.encode(SESSION, update(TripStatus.ACCEPTED, 80.0));
+
+        assertNull(registry.encode(SESSION, update(TripStatus.ACCEPTED, 80.0)));
+    }
+
+    @Test
+    void finalStatusForgetsTheTrip() {
+        registry.encode(SESSION, update(TripStatus.ACCEPTED, 80.0));
+        registry.encode(SESSION, update(TripStatus.COMPLETED, 80.0));
+
+        Object next = registry.encode(SESSION, update(TripStatus.COMPLETED, 80.0));
+        assertEquals(false, ((Map<?, ?>) next).get("delta"));
+    }
+
+    @Test
+    void otherPayloadsAreSentWithoutNullFields() {
+        Object frame = registry.encode(SESSION, new Sample("x", null));
+
+        assertEquals(Map.of("name", "x"), frame);
+    }
+
+    record Sample(String name, String empty) {
+    }
+}